@@ -16,15 +16,40 @@
 
 package bny.codekatas.calendarkata;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Iterator;
 
-import org.eclipse.collections.api.multimap.Multimap;
+import org.eclipse.collections.api.map.sorted.SortedMapIterable;
+import org.eclipse.collections.api.set.SetIterable;
+import org.eclipse.collections.api.set.sorted.SortedSetIterable;
+import org.eclipse.collections.api.tuple.Pair;
+import org.eclipse.collections.impl.factory.SortedSets;
 import org.threeten.extra.LocalDateRange;
 
+/**
+ * A CalendarWindow is a range of dates and a view of the meetings of a {@link MyCalendar} on those dates.  The
+ * meetings are a subMap view of the calendar's date-sorted map, so creating a window only has to find the
+ * start of the range, and meetings added to the calendar later show up in the window.  Occurrences of
+ * recurring meetings are expanded only for the dates in the window as they are read.
+ * <p>
+ * A window seen from a zone other than the calendar's zone is not a view.  Its meetings, including the
+ * occurrences of recurring meetings, are grouped by date in that zone when the window is created, so meetings
+ * added to the calendar later do not show up in it.
+ */
 public class CalendarWindow
 {
+    private static final SortedSetIterable<Meeting> NO_MEETINGS = SortedSets.immutable.empty(Meeting.COMPARATOR);
+
     LocalDateRange range;
-    Multimap<LocalDate, Meeting> meetings;
+    SortedMapIterable<LocalDate, ? extends SortedSetIterable<Meeting>> meetings;
+    RecurringMeetings recurringMeetings;
+    // The zone the window is seen from, or null if it is seen from the calendar's zone
+    ZoneId viewerZone;
 
     public LocalDate getStart()
     {
@@ -38,18 +63,116 @@ public class CalendarWindow
 
     public int getNumberOfMeetings()
     {
-        return this.meetings.size();
+        return (int) this.meetings.sumOfInt(SetIterable::size) + this.recurringMeetings.countOccurrences(this.range);
     }
 
     protected String iterateMeetings()
     {
         StringBuilder builder = new StringBuilder();
-        this.range.stream().forEach(date -> {
-            builder.append("Date=" + date);
-            builder.append(" {Meetings= ");
-            builder.append(this.meetings.get(date));
-            builder.append("} ");
-        });
+        this.renderTo(builder);
         return builder.toString();
     }
+
+    /**
+     * Writes the same text as {@link #iterateMeetings()} to the Appendable, a date at a time, in one ordered
+     * pass over the meetings in the window.
+     */
+    public void renderTo(Appendable out)
+    {
+        this.forEachDate((date, meetingsForDate) ->
+        {
+            out.append("Date=").append(date.toString()).append(" {Meetings= [");
+            boolean first = true;
+            for (Meeting meeting : meetingsForDate)
+            {
+                if (!first)
+                {
+                    out.append(", ");
+                }
+                meeting.appendTo(out);
+                first = false;
+            }
+            out.append("]} ");
+        });
+    }
+
+    /**
+     * Writes the meetings in the window to the Appendable for bulk export, one meeting to a line in date and
+     * start time order, as tab separated ISO date, ISO start time, duration in seconds and subject.  The date
+     * and start time are both local to the zone the window is seen from.  Tabs, line breaks and backslashes in a
+     * subject are escaped with a backslash.
+     */
+    public void exportTo(Appendable out)
+    {
+        this.forEachDate((date, meetingsForDate) ->
+        {
+            for (Meeting meeting : meetingsForDate)
+            {
+                out.append(date.toString()).append('\t')
+                        .append(this.getStartTime(meeting).toString()).append('\t')
+                        .append(Long.toString(meeting.getDuration().getSeconds())).append('\t');
+                CalendarWindow.appendEscaped(out, meeting.getSubject());
+                out.append('\n');
+            }
+        });
+    }
+
+    private LocalTime getStartTime(Meeting meeting)
+    {
+        if (this.viewerZone == null)
+        {
+            return meeting.getStartTime();
+        }
+        return LocalTime.ofInstant(Instant.ofEpochSecond(meeting.getStartEpochSecond()), this.viewerZone);
+    }
+
+    private static void appendEscaped(Appendable out, String value) throws IOException
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\\' -> out.append("\\\\");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    /**
+     * Calls the writer with each date in the range and its meetings, including occurrences of recurring
+     * meetings.  The dates with single meetings are read in step with the range from the date-sorted map,
+     * rather than looked up one date at a time.
+     */
+    private void forEachDate(MeetingsForDateWriter writer)
+    {
+        Iterator<? extends Pair<LocalDate, ? extends SortedSetIterable<Meeting>>> days =
+                this.meetings.keyValuesView().iterator();
+        Pair<LocalDate, ? extends SortedSetIterable<Meeting>> next = days.hasNext() ? days.next() : null;
+        try
+        {
+            for (LocalDate date = this.range.getStart(); date.isBefore(this.range.getEnd()); date = date.plusDays(1L))
+            {
+                SortedSetIterable<Meeting> meetingsForDate = NO_MEETINGS;
+                if (next != null && next.getOne().equals(date))
+                {
+                    meetingsForDate = next.getTwo();
+                    next = days.hasNext() ? days.next() : null;
+                }
+                writer.write(date, this.recurringMeetings.withOccurrencesOn(date, meetingsForDate));
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface MeetingsForDateWriter
+    {
+        void write(LocalDate date, SortedSetIterable<Meeting> meetings) throws IOException;
+    }
 }
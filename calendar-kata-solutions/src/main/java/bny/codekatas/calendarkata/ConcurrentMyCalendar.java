@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.eclipse.collections.api.set.sorted.ImmutableSortedSet;
+import org.eclipse.collections.impl.factory.SortedSets;
+import org.threeten.extra.LocalDateRange;
+
+/**
+ * A ConcurrentMyCalendar can be booked from many threads at once without ever holding overlapping meetings.
+ * The meetings for each date are kept in an immutable bucket in a ConcurrentSkipListMap.  A booking reads the
+ * bucket for its date, checks for an overlap, and swaps in a copy of the bucket with the new meeting using
+ * compare-and-set.  If another booking for the same date got there first, the booking retries against the
+ * newer bucket, so two overlapping meetings can never both be accepted.  Bookings for different dates never
+ * contend, and queries read a published bucket without taking any locks.
+ */
+public class ConcurrentMyCalendar
+{
+    private static final DayBookings NO_BOOKINGS = new DayBookings(
+            SortedSets.immutable.empty(Meeting.COMPARATOR),
+            new MeetingIndex());
+
+    private final ZoneId zoneId;
+    private final ConcurrentNavigableMap<LocalDate, DayBookings> meetings = new ConcurrentSkipListMap<>();
+
+    public ConcurrentMyCalendar(TimeZone timezone)
+    {
+        this.zoneId = timezone.toZoneId();
+    }
+
+    public ZoneId getZoneId()
+    {
+        return this.zoneId;
+    }
+
+    public boolean addMeeting(String subject, LocalDate date, LocalTime startTime, Duration duration)
+    {
+        Meeting meeting = new Meeting(subject, date, startTime, duration, this.zoneId);
+        while (true)
+        {
+            DayBookings current = this.meetings.get(date);
+            DayBookings bookings = current == null ? NO_BOOKINGS : current;
+            if (bookings.index.overlaps(meeting.getStartEpochSecond(), meeting.getEndEpochSecond())
+                    || bookings.meetings.contains(meeting))
+            {
+                return false;
+            }
+            DayBookings next = bookings.with(meeting);
+            boolean booked = current == null
+                    ? this.meetings.putIfAbsent(date, next) == null
+                    : this.meetings.replace(date, current, next);
+            if (booked)
+            {
+                return true;
+            }
+        }
+    }
+
+    public boolean hasOverlappingMeeting(LocalDate date, LocalTime startTime, Duration duration)
+    {
+        DayBookings bookings = this.meetings.get(date);
+        if (bookings == null)
+        {
+            return false;
+        }
+        long start = date.atTime(startTime).atZone(this.zoneId).toEpochSecond();
+        return bookings.index.overlaps(start, start + duration.getSeconds());
+    }
+
+    public ImmutableSortedSet<Meeting> getMeetingsForDate(LocalDate date)
+    {
+        return this.meetings.getOrDefault(date, NO_BOOKINGS).meetings;
+    }
+
+    public int getNumberOfMeetings(LocalDateRange range)
+    {
+        return this.meetings.subMap(range.getStart(), range.getEnd())
+                .values()
+                .stream()
+                .mapToInt(bookings -> bookings.meetings.size())
+                .sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentMyCalendar(" +
+                "meetings=" + this.meetings +
+                ')';
+    }
+
+    /**
+     * The meetings booked on one date.  A DayBookings is never changed once it has been put in the map;
+     * {@link #with(Meeting)} returns a new one.  It uses identity equality, so the compare-and-set only
+     * succeeds against the exact bucket that was checked.
+     */
+    private static final class DayBookings
+    {
+        private final ImmutableSortedSet<Meeting> meetings;
+        private final MeetingIndex index;
+
+        private DayBookings(ImmutableSortedSet<Meeting> meetings, MeetingIndex index)
+        {
+            this.meetings = meetings;
+            this.index = index;
+        }
+
+        private DayBookings with(Meeting meeting)
+        {
+            MeetingIndex nextIndex = this.index.copy();
+            nextIndex.add(meeting.getStartEpochSecond(), meeting.getEndEpochSecond());
+            return new DayBookings(this.meetings.newWith(meeting), nextIndex);
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.meetings.toString();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+/**
+ * A DayOccupancy is a bitmap of the slots of one day that are taken by meetings, one bit per slot of a fixed
+ * number of seconds counted from the start of the day, packed 64 to a long.  A slot is taken if any meeting
+ * covers any part of it, so a run of free slots is always free time.  Searches for a run of free slots skip
+ * a whole word of taken or free slots at a time using {@link Long#numberOfTrailingZeros(long)}.
+ */
+public class DayOccupancy
+{
+    private final long startOfDay;
+    private final int slotSeconds;
+    private final int slots;
+    private final long[] words;
+
+    public DayOccupancy(long startOfDay, long startOfNextDay, int slotSeconds)
+    {
+        this.startOfDay = startOfDay;
+        this.slotSeconds = slotSeconds;
+        this.slots = (int) ((startOfNextDay - startOfDay + slotSeconds - 1) / slotSeconds);
+        this.words = new long[(this.slots + 63) >>> 6];
+    }
+
+    private DayOccupancy(DayOccupancy occupancy)
+    {
+        this.startOfDay = occupancy.startOfDay;
+        this.slotSeconds = occupancy.slotSeconds;
+        this.slots = occupancy.slots;
+        this.words = occupancy.words.clone();
+    }
+
+    /**
+     * Marks the slots covered by the time from start (inclusive) to end (exclusive) as taken.  Any part of the
+     * time outside this day is ignored.
+     */
+    public void occupy(long start, long end)
+    {
+        int from = (int) Math.max(0L, Math.floorDiv(start - this.startOfDay, this.slotSeconds));
+        int to = (int) Math.min(this.slots, -Math.floorDiv(this.startOfDay - end, this.slotSeconds));
+        if (from >= to)
+        {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord)
+        {
+            this.words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        this.words[firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++)
+        {
+            this.words[i] = -1L;
+        }
+        this.words[lastWord] |= lastMask;
+    }
+
+    public boolean isOccupied(int slot)
+    {
+        return (this.words[slot >>> 6] & (1L << slot)) != 0L;
+    }
+
+    /**
+     * Returns the first slot of the first run of length free slots that starts at or after the slot from and
+     * ends at or before the slot to, or -1 if there is no such run.
+     */
+    public int findFreeRun(int from, int to, int length)
+    {
+        int end = Math.min(to, this.slots);
+        int slot = Math.max(from, 0);
+        while (slot + length <= end)
+        {
+            int taken = this.nextOccupied(slot, end);
+            if (taken - slot >= length)
+            {
+                return slot;
+            }
+            slot = this.nextFree(taken, end);
+        }
+        return -1;
+    }
+
+    private int nextOccupied(int from, int to)
+    {
+        int index = from >>> 6;
+        long word = this.words[index] & (-1L << from);
+        while (word == 0L)
+        {
+            if (++index >= this.words.length)
+            {
+                return to;
+            }
+            word = this.words[index];
+        }
+        return Math.min((index << 6) + Long.numberOfTrailingZeros(word), to);
+    }
+
+    private int nextFree(int from, int to)
+    {
+        if (from >= to)
+        {
+            return to;
+        }
+        int index = from >>> 6;
+        long word = ~this.words[index] & (-1L << from);
+        while (word == 0L)
+        {
+            if (++index >= this.words.length)
+            {
+                return to;
+            }
+            word = ~this.words[index];
+        }
+        return Math.min((index << 6) + Long.numberOfTrailingZeros(word), to);
+    }
+
+    /**
+     * Returns the slot that contains the epoch second, which may be outside this day.
+     */
+    public int slotOf(long epochSecond)
+    {
+        return (int) Math.floorDiv(epochSecond - this.startOfDay, this.slotSeconds);
+    }
+
+    /**
+     * Returns the first slot that starts at or after the epoch second, which may be outside this day.
+     */
+    public int slotAtOrAfter(long epochSecond)
+    {
+        return (int) -Math.floorDiv(this.startOfDay - epochSecond, this.slotSeconds);
+    }
+
+    public long getSlotStart(int slot)
+    {
+        return this.startOfDay + (long) slot * this.slotSeconds;
+    }
+
+    public int getSlotSeconds()
+    {
+        return this.slotSeconds;
+    }
+
+    /**
+     * Returns a copy of this occupancy, so recurring meetings can be marked for a search without changing it.
+     */
+    DayOccupancy copy()
+    {
+        return new DayOccupancy(this);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.eclipse.collections.impl.parallel.ParallelIterate;
+import org.threeten.extra.Interval;
+
+/**
+ * FreeBusy finds the times in a window when every one of many calendars is free.  The busy times of all the
+ * calendars are gathered into two primitive arrays of start and end epoch seconds, the arrays are sorted on
+ * their own, and a single sweep counts how many meetings are running at each point in time.  Wherever the
+ * count drops to zero everyone is free.  Gathering the busy times can be split across calendars on an
+ * Executor.
+ */
+public final class FreeBusy
+{
+    private FreeBusy()
+    {
+    }
+
+    /**
+     * Returns the free slots of at least minimumLength within the window that are free in every calendar.
+     */
+    public static MutableList<Interval> findCommonAvailability(
+            Iterable<MyCalendar> calendars,
+            Interval window,
+            Duration minimumLength)
+    {
+        MutableLongList starts = LongLists.mutable.empty();
+        MutableLongList ends = LongLists.mutable.empty();
+        for (MyCalendar calendar : calendars)
+        {
+            FreeBusy.collectBusyTimes(calendar, window, starts, ends);
+        }
+        return FreeBusy.sweep(starts.toArray(), ends.toArray(), window, minimumLength);
+    }
+
+    /**
+     * Parallel version of {@link #findCommonAvailability(Iterable, Interval, Duration)} that gathers the busy
+     * times of each calendar on the specified Executor.
+     */
+    public static MutableList<Interval> findCommonAvailability(
+            ListIterable<MyCalendar> calendars,
+            Interval window,
+            Duration minimumLength,
+            Executor executor)
+    {
+        long[][] starts = new long[calendars.size()][];
+        long[][] ends = new long[calendars.size()][];
+        ParallelIterate.forEachWithIndex(calendars, (calendar, index) ->
+        {
+            MutableLongList calendarStarts = LongLists.mutable.empty();
+            MutableLongList calendarEnds = LongLists.mutable.empty();
+            FreeBusy.collectBusyTimes(calendar, window, calendarStarts, calendarEnds);
+            starts[index] = calendarStarts.toArray();
+            ends[index] = calendarEnds.toArray();
+        }, executor);
+        return FreeBusy.sweep(FreeBusy.concatenate(starts), FreeBusy.concatenate(ends), window, minimumLength);
+    }
+
+    /**
+     * Adds the busy times of the calendar within the window, clipped to the window.  The calendar finds the
+     * meetings that started before the window and run into it however long ago they started, in the same way
+     * as {@link MyCalendar#getAvailableTimeslots(LocalDate, java.time.ZoneId)}.
+     */
+    private static void collectBusyTimes(
+            MyCalendar calendar,
+            Interval window,
+            MutableLongList starts,
+            MutableLongList ends)
+    {
+        long from = window.getStart().getEpochSecond();
+        long to = window.getEnd().getEpochSecond();
+        calendar.forEachBusyTime(from, to, (busyStart, busyEnd) ->
+        {
+            long start = Math.max(busyStart, from);
+            long end = Math.min(busyEnd, to);
+            if (start < end)
+            {
+                starts.add(start);
+                ends.add(end);
+            }
+        });
+    }
+
+    private static long[] concatenate(long[][] arrays)
+    {
+        int length = 0;
+        for (long[] array : arrays)
+        {
+            length += array.length;
+        }
+        long[] result = new long[length];
+        int offset = 0;
+        for (long[] array : arrays)
+        {
+            System.arraycopy(array, 0, result, offset, array.length);
+            offset += array.length;
+        }
+        return result;
+    }
+
+    private static MutableList<Interval> sweep(long[] starts, long[] ends, Interval window, Duration minimumLength)
+    {
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+        MutableLongList slots = LongLists.mutable.empty();
+        FreeBusy.sweep(
+                starts,
+                ends,
+                starts.length,
+                window.getStart().getEpochSecond(),
+                window.getEnd().getEpochSecond(),
+                minimumLength,
+                slots);
+        MutableList<Interval> free = Lists.mutable.withInitialCapacity(slots.size() / 2);
+        for (int i = 0; i < slots.size(); i += 2)
+        {
+            free.add(Interval.of(Instant.ofEpochSecond(slots.get(i)), Instant.ofEpochSecond(slots.get(i + 1))));
+        }
+        return free;
+    }
+
+    /**
+     * Writes the free slots between from and to of at least minimumLength into slots as pairs of start and end
+     * epoch seconds, and returns the number of slots written.  The first count busy starts and ends must each
+     * be sorted, but they do not have to be paired up, so overlapping and nested busy times are merged.  Busy
+     * times outside from and to are clipped to them.  Nothing is allocated apart from growing slots.
+     */
+    static int sweep(
+            long[] starts,
+            long[] ends,
+            int count,
+            long from,
+            long to,
+            Duration minimumLength,
+            MutableLongList slots)
+    {
+        long minimum = Math.max(minimumLength.getSeconds(), 1L);
+        int written = 0;
+        long freeFrom = from;
+        int running = 0;
+        int next = 0;
+        int nextEnd = 0;
+        while (next < count)
+        {
+            long start = Math.min(Math.max(starts[next], from), to);
+            long end = Math.min(Math.max(ends[nextEnd], from), to);
+            // Starts are taken first on a tie, so the running count never goes below zero
+            if (start <= end)
+            {
+                if (running == 0 && start - freeFrom >= minimum)
+                {
+                    slots.add(freeFrom);
+                    slots.add(start);
+                    written++;
+                }
+                running++;
+                next++;
+            }
+            else
+            {
+                running--;
+                if (running == 0)
+                {
+                    freeFrom = Math.max(freeFrom, end);
+                }
+                nextEnd++;
+            }
+        }
+        if (nextEnd < count)
+        {
+            freeFrom = Math.max(freeFrom, Math.min(Math.max(ends[count - 1], from), to));
+        }
+        if (to - freeFrom >= minimum)
+        {
+            slots.add(freeFrom);
+            slots.add(to);
+            written++;
+        }
+        return written;
+    }
+}
@@ -17,8 +17,11 @@
 package bny.codekatas.calendarkata;
 
 import java.time.LocalDate;
+import java.time.ZoneId;
 
-import org.eclipse.collections.api.multimap.sortedset.SortedSetMultimap;
+import org.eclipse.collections.api.map.sorted.MutableSortedMap;
+import org.eclipse.collections.api.set.sorted.MutableSortedSet;
+import org.eclipse.collections.impl.factory.SortedMaps;
 import org.threeten.extra.LocalDateRange;
 
 public class FullMonth extends CalendarWindow
@@ -31,15 +34,27 @@ public class FullMonth extends CalendarWindow
      * Hint: Look at {@link LocalDateRange#of(LocalDate, LocalDate)}
      * Hint: The end date is exclusive in LocalDateRange
      */
-    public FullMonth(LocalDate forDate, SortedSetMultimap<LocalDate, Meeting> calendarMeetings)
+    public FullMonth(
+            LocalDate forDate,
+            MutableSortedMap<LocalDate, MutableSortedSet<Meeting>> calendarMeetings,
+            RecurringMeetings recurringMeetings)
     {
         LocalDate start = forDate.withDayOfMonth(1);
         LocalDate end = start.plusDays(start.lengthOfMonth());
         this.range = LocalDateRange.of(start, end);
-        this.meetings = calendarMeetings.selectKeysValues(
-                (date, meeting) ->
-                        date.getMonth().equals(start.getMonth()) &&
-                                date.getYear() == start.getYear());
+        this.meetings = calendarMeetings.subMap(start, end);
+        this.recurringMeetings = recurringMeetings;
+    }
+
+    /**
+     * Creates the window with a snapshot of the meetings of the calendar grouped by date as seen from the
+     * viewer zone.  Meetings added to the calendar after the window is created are not included.
+     */
+    public FullMonth(LocalDate forDate, MyCalendar calendar, ZoneId viewerZone)
+    {
+        this(forDate, SortedMaps.mutable.empty(), new RecurringMeetings());
+        this.meetings = calendar.getMeetingsByDate(this.range, viewerZone);
+        this.viewerZone = viewerZone;
     }
 
     @Override
@@ -18,10 +18,13 @@ package bny.codekatas.calendarkata;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.temporal.TemporalAdjuster;
 import java.time.temporal.TemporalAdjusters;
 
-import org.eclipse.collections.api.multimap.sortedset.SortedSetMultimap;
+import org.eclipse.collections.api.map.sorted.MutableSortedMap;
+import org.eclipse.collections.api.set.sorted.MutableSortedSet;
+import org.eclipse.collections.impl.factory.SortedMaps;
 import org.threeten.extra.LocalDateRange;
 
 public class FullWeek extends CalendarWindow
@@ -35,11 +38,26 @@ public class FullWeek extends CalendarWindow
      * Hint: Look at {@link LocalDateRange#of(LocalDate, LocalDate)}
      * Hint: The end date is exclusive in LocalDateRange
      */
-    public FullWeek(LocalDate forDate, SortedSetMultimap<LocalDate, Meeting> calendarMeetings)
+    public FullWeek(
+            LocalDate forDate,
+            MutableSortedMap<LocalDate, MutableSortedSet<Meeting>> calendarMeetings,
+            RecurringMeetings recurringMeetings)
     {
         LocalDate start = forDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
         this.range = LocalDateRange.of(start, start.plusDays(7));
-        this.meetings = calendarMeetings.selectKeysValues((date, meeting) -> this.range.contains(date));
+        this.meetings = calendarMeetings.subMap(this.range.getStart(), this.range.getEnd());
+        this.recurringMeetings = recurringMeetings;
+    }
+
+    /**
+     * Creates the window with a snapshot of the meetings of the calendar grouped by date as seen from the
+     * viewer zone.  Meetings added to the calendar after the window is created are not included.
+     */
+    public FullWeek(LocalDate forDate, MyCalendar calendar, ZoneId viewerZone)
+    {
+        this(forDate, SortedMaps.mutable.empty(), new RecurringMeetings());
+        this.meetings = calendar.getMeetingsByDate(this.range, viewerZone);
+        this.viewerZone = viewerZone;
     }
 
     @Override
@@ -16,7 +16,10 @@
 
 package bny.codekatas.calendarkata;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -34,7 +37,14 @@ public class Meeting implements Comparable<Meeting>
     private LocalTime startTime;
     private Duration duration;
     private ZoneId zoneId;
-
+    private final long startEpochSecond;
+    private final long endEpochSecond;
+
+    /**
+     * The start and end of the meeting are resolved against the zone rules once, here, and kept as epoch
+     * seconds for overlap checks.  Meetings are scheduled to the second, so any fraction of a second in the
+     * start time or duration is ignored by those checks.
+     */
     public Meeting(String subject, LocalDate date, LocalTime startTime, Duration duration, ZoneId zoneId)
     {
         this.subject = subject;
@@ -42,11 +52,41 @@ public class Meeting implements Comparable<Meeting>
         this.startTime = startTime;
         this.duration = duration;
         this.zoneId = zoneId;
+        this.startEpochSecond = LocalDateTime.of(date, startTime).atZone(zoneId).toEpochSecond();
+        this.endEpochSecond = this.startEpochSecond + duration.getSeconds();
+    }
+
+    /**
+     * Creates a meeting from its start in epoch seconds, for meetings read back from a {@link MyCalendarFile}.
+     * The date and start time are the local date and time of the start in the zone.
+     */
+    Meeting(String subject, long startEpochSecond, Duration duration, ZoneId zoneId)
+    {
+        LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochSecond(startEpochSecond), zoneId);
+        this.subject = subject;
+        this.date = start.toLocalDate();
+        this.startTime = start.toLocalTime();
+        this.duration = duration;
+        this.zoneId = zoneId;
+        this.startEpochSecond = startEpochSecond;
+        this.endEpochSecond = startEpochSecond + duration.getSeconds();
     }
 
+    /**
+     * Returns true if this meeting overlaps the interval, using the same rules as
+     * {@link Interval#overlaps(Interval)} without creating an Interval for this meeting.
+     */
     public boolean overlaps(Interval interval)
     {
-        return this.getInterval().overlaps(interval);
+        long start = interval.getStart().getEpochSecond();
+        long end = interval.getEnd().getEpochSecond();
+        return this.overlaps(start, end);
+    }
+
+    public boolean overlaps(long start, long end)
+    {
+        return (start == this.startEpochSecond && end == this.endEpochSecond)
+                || (this.startEpochSecond < end && start < this.endEpochSecond);
     }
 
     public String getSubject()
@@ -79,13 +119,19 @@ public class Meeting implements Comparable<Meeting>
         return this.getStartTime().plus(this.getDuration());
     }
 
+    public long getStartEpochSecond()
+    {
+        return this.startEpochSecond;
+    }
+
+    public long getEndEpochSecond()
+    {
+        return this.endEpochSecond;
+    }
+
     public Interval getInterval()
     {
-        return Interval.of(
-                LocalDateTime.of(this.date, this.startTime)
-                        .atZone(this.zoneId)
-                        .toInstant(),
-                this.duration);
+        return Interval.of(Instant.ofEpochSecond(this.startEpochSecond, this.startTime.getNano()), this.duration);
     }
 
     @Override
@@ -121,13 +167,29 @@ public class Meeting implements Comparable<Meeting>
     @Override
     public String toString()
     {
-        return "Meeting(" +
-                "subject='" + this.getSubject() + '\'' +
-                ", date=" + this.getDate() +
-                ", startTime=" + this.getStartTime() +
-                ", duration=" + this.getDuration() +
-                ", endTime=" + this.getEndTime() +
-                ')';
+        StringBuilder builder = new StringBuilder(128);
+        try
+        {
+            this.appendTo(builder);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the same text as {@link #toString()} to the Appendable without building a String first.
+     */
+    public void appendTo(Appendable out) throws IOException
+    {
+        out.append("Meeting(subject='").append(this.getSubject())
+                .append("', date=").append(this.getDate().toString())
+                .append(", startTime=").append(this.getStartTime().toString())
+                .append(", duration=").append(this.getDuration().toString())
+                .append(", endTime=").append(this.getEndTime().toString())
+                .append(')');
     }
 
     @Override
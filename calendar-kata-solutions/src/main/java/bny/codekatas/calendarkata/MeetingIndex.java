@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.util.Arrays;
+
+/**
+ * A MeetingIndex holds the start and end epoch seconds of the meetings on one date in two parallel arrays,
+ * sorted by start and then by end.  A calendar never accepts overlapping meetings, so sorting by start also
+ * sorts by end, and an overlap check is a binary search for the last meeting starting before the end of the
+ * time slot.  Checks take O(log n) time and allocate nothing.  Adding a meeting shifts the later meetings
+ * along by one.
+ */
+public class MeetingIndex
+{
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Adds a meeting from start (inclusive) to end (exclusive).  The meeting must not overlap any meeting
+     * already in the index.
+     */
+    public void add(long start, long end)
+    {
+        if (this.size == this.starts.length)
+        {
+            this.starts = Arrays.copyOf(this.starts, this.size * 2);
+            this.ends = Arrays.copyOf(this.ends, this.size * 2);
+        }
+        int index = this.upperBound(start);
+        while (index > 0 && this.starts[index - 1] == start && this.ends[index - 1] > end)
+        {
+            index--;
+        }
+        System.arraycopy(this.starts, index, this.starts, index + 1, this.size - index);
+        System.arraycopy(this.ends, index, this.ends, index + 1, this.size - index);
+        this.starts[index] = start;
+        this.ends[index] = end;
+        this.size++;
+    }
+
+    /**
+     * Returns true if a meeting in the index overlaps the time slot from start (inclusive) to end (exclusive),
+     * using the same rules as {@link org.threeten.extra.Interval#overlaps(org.threeten.extra.Interval)}, where
+     * an empty slot only overlaps an identical empty meeting.
+     */
+    public boolean overlaps(long start, long end)
+    {
+        int before = this.lowerBound(end) - 1;
+        if (before >= 0 && this.ends[before] > start && this.starts[before] < end)
+        {
+            return true;
+        }
+        if (start == end)
+        {
+            for (int i = this.lowerBound(start); i < this.size && this.starts[i] == start; i++)
+            {
+                if (this.ends[i] == end)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a copy of this index, so a new meeting can be added to the copy while the original is still
+     * being read.
+     */
+    MeetingIndex copy()
+    {
+        MeetingIndex copy = new MeetingIndex();
+        copy.starts = Arrays.copyOf(this.starts, Math.max(this.size + 1, INITIAL_CAPACITY));
+        copy.ends = Arrays.copyOf(this.ends, copy.starts.length);
+        copy.size = this.size;
+        return copy;
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Copies the start and end epoch seconds of the meetings, in order, into the arrays at the offset.
+     */
+    void copyInto(long[] startsTarget, long[] endsTarget, int offset)
+    {
+        System.arraycopy(this.starts, 0, startsTarget, offset, this.size);
+        System.arraycopy(this.ends, 0, endsTarget, offset, this.size);
+    }
+
+    long[] starts()
+    {
+        return this.starts;
+    }
+
+    long[] ends()
+    {
+        return this.ends;
+    }
+
+    /**
+     * Returns the index of the first meeting starting at or after value.
+     */
+    private int lowerBound(long value)
+    {
+        int low = 0;
+        int high = this.size;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (this.starts[middle] < value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first meeting starting after value.
+     */
+    private int upperBound(long value)
+    {
+        int low = 0;
+        int high = this.size;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (this.starts[middle] <= value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -19,32 +19,66 @@ package bny.codekatas.calendarkata;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Month;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.TimeZone;
 
-import org.eclipse.collections.api.RichIterable;
-import org.eclipse.collections.api.block.function.Function2;
-import org.eclipse.collections.api.block.predicate.Predicate2;
-import org.eclipse.collections.api.factory.Stacks;
+import org.eclipse.collections.api.block.predicate.Predicate;
+import org.eclipse.collections.api.block.procedure.primitive.LongLongProcedure;
+import org.eclipse.collections.api.block.procedure.Procedure;
+import org.eclipse.collections.api.list.ListIterable;
 import org.eclipse.collections.api.list.MutableList;
-import org.eclipse.collections.api.multimap.sortedset.MutableSortedSetMultimap;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.api.map.sorted.MutableSortedMap;
+import org.eclipse.collections.api.set.SetIterable;
+import org.eclipse.collections.api.set.sorted.MutableSortedSet;
 import org.eclipse.collections.api.set.sorted.SortedSetIterable;
-import org.eclipse.collections.impl.factory.Multimaps;
+import org.eclipse.collections.impl.block.factory.Predicates;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.Maps;
+import org.eclipse.collections.impl.factory.SortedMaps;
+import org.eclipse.collections.impl.factory.SortedSets;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
 import org.threeten.extra.Interval;
+import org.threeten.extra.LocalDateRange;
 
 public class MyCalendar
 {
+    private static final long[] NO_TIMES = new long[0];
+    private static final Duration DEFAULT_SLOT_LENGTH = Duration.ofMinutes(5L);
+    private static final SortedSetIterable<Meeting> NO_MEETINGS = SortedSets.immutable.empty(Meeting.COMPARATOR);
+
     private TimeZone timezone = TimeZone.getDefault();
-    private MutableSortedSetMultimap<LocalDate, Meeting> meetings;
+    private MutableSortedMap<LocalDate, MutableSortedSet<Meeting>> meetings;
+    private MutableMap<LocalDate, MeetingIndex> meetingIndexes = Maps.mutable.empty();
+    private MutableSortedMap<Long, Meeting> meetingsByStart = SortedMaps.mutable.empty();
+    private MutableMap<LocalDate, MutableList<Meeting>> carriedOver = Maps.mutable.empty();
+    private MutableMap<LocalDate, DayOccupancy> occupancies = Maps.mutable.empty();
+    private final int slotSeconds;
+    private RecurringMeetings recurringMeetings = new RecurringMeetings();
 
     public MyCalendar(TimeZone timezone)
     {
+        this(timezone, DEFAULT_SLOT_LENGTH);
+    }
+
+    /**
+     * Creates a calendar that keeps a {@link DayOccupancy} for each date with slots of slotLength, which is used
+     * by {@link #findFreeSlot(CalendarWindow, LocalTime, LocalTime, Duration)}.
+     */
+    public MyCalendar(TimeZone timezone, Duration slotLength)
+    {
+        if (slotLength.getNano() != 0 || slotLength.getSeconds() < 1L || slotLength.compareTo(Duration.ofDays(1L)) > 0)
+        {
+            throw new IllegalArgumentException(
+                    "Slot length must be whole seconds from a second to a day: " + slotLength);
+        }
         this.timezone = timezone;
-        this.meetings = Multimaps.mutable.sortedSet.with(Meeting.COMPARATOR);
+        this.meetings = SortedMaps.mutable.empty();
+        this.slotSeconds = (int) slotLength.getSeconds();
     }
 
     public ZoneId getZoneId()
@@ -54,74 +88,451 @@ public class MyCalendar
 
     public FullMonth getMeetingsForYearMonth(int year, Month month)
     {
-        return new FullMonth(LocalDate.of(year, month, 1), this.meetings);
+        return new FullMonth(LocalDate.of(year, month, 1), this.meetings, this.recurringMeetings);
+    }
+
+    public FullMonth getMeetingsForYearMonth(int year, Month month, ZoneId viewerZone)
+    {
+        if (viewerZone.equals(this.getZoneId()))
+        {
+            return this.getMeetingsForYearMonth(year, month);
+        }
+        return new FullMonth(LocalDate.of(year, month, 1), this, viewerZone);
     }
 
     public SortedSetIterable<Meeting> getMeetingsForDate(LocalDate date)
     {
         SortedSetIterable<Meeting> set = this.meetings.get(date);
-        return set;
+        return this.recurringMeetings.withOccurrencesOn(date, set == null ? NO_MEETINGS : set);
+    }
+
+    /**
+     * Returns the meetings that start on the date as seen from the viewer zone.
+     */
+    public SortedSetIterable<Meeting> getMeetingsForDate(LocalDate date, ZoneId viewerZone)
+    {
+        if (viewerZone.equals(this.getZoneId()))
+        {
+            return this.getMeetingsForDate(date);
+        }
+        LocalDateRange range = LocalDateRange.of(date, date.plusDays(1L));
+        SortedSetIterable<Meeting> set = this.getMeetingsByDate(range, viewerZone).get(date);
+        return set == null ? NO_MEETINGS : set;
+    }
+
+    /**
+     * Groups the meetings that start in the range as seen from the viewer zone by their date in that zone,
+     * including the occurrences of recurring meetings.  The meetings are stored by their start in epoch
+     * seconds, so only the meetings in the range are read, and the day boundaries of the viewer zone come
+     * from the cached {@link ZoneDayBoundaries} rather than from resolving each meeting against the zone.
+     */
+    MutableSortedMap<LocalDate, MutableSortedSet<Meeting>> getMeetingsByDate(LocalDateRange range, ZoneId viewerZone)
+    {
+        ZoneDayBoundaries boundaries = ZoneDayBoundaries.of(viewerZone);
+        long from = boundaries.startOfDay(range.getStart());
+        long to = boundaries.startOfDay(range.getEnd());
+        MutableSortedMap<LocalDate, MutableSortedSet<Meeting>> byDate = SortedMaps.mutable.empty();
+        this.meetingsByStart.subMap(from, to).forEachValue(meeting ->
+                byDate.getIfAbsentPut(boundaries.dateOf(meeting.getStartEpochSecond()), MyCalendar::newMeetingsForDate)
+                        .add(meeting));
+        this.recurringMeetings.forEachOccurrence(MyCalendar.widen(range), (rule, date) ->
+        {
+            long start = rule.getStartEpochSecondOn(date);
+            if (from <= start && start < to)
+            {
+                byDate.getIfAbsentPut(boundaries.dateOf(start), MyCalendar::newMeetingsForDate)
+                        .add(rule.getOccurrenceOn(date));
+            }
+        });
+        return byDate;
+    }
+
+    /**
+     * Zone offsets are within 18 hours of UTC, so a date in one zone overlaps at most the two dates either
+     * side of it in another zone.
+     */
+    private static LocalDateRange widen(LocalDateRange range)
+    {
+        return LocalDateRange.of(range.getStart().minusDays(2L), range.getEnd().plusDays(2L));
     }
 
     public WorkWeek getMeetingsForWorkWeekOf(LocalDate value)
     {
-        return new WorkWeek(value, this.meetings);
+        return new WorkWeek(value, this.meetings, this.recurringMeetings);
+    }
+
+    public WorkWeek getMeetingsForWorkWeekOf(LocalDate value, ZoneId viewerZone)
+    {
+        if (viewerZone.equals(this.getZoneId()))
+        {
+            return this.getMeetingsForWorkWeekOf(value);
+        }
+        return new WorkWeek(value, this, viewerZone);
     }
 
     public FullWeek getMeetingsForFullWeekOf(LocalDate value)
     {
-        return new FullWeek(value, this.meetings);
+        return new FullWeek(value, this.meetings, this.recurringMeetings);
+    }
+
+    public FullWeek getMeetingsForFullWeekOf(LocalDate value, ZoneId viewerZone)
+    {
+        if (viewerZone.equals(this.getZoneId()))
+        {
+            return this.getMeetingsForFullWeekOf(value);
+        }
+        return new FullWeek(value, this, viewerZone);
     }
 
     public boolean addMeeting(String subject, LocalDate date, LocalTime startTime, Duration duration)
     {
-        if (!this.hasOverlappingMeeting(date, startTime, duration))
+        Meeting meeting = new Meeting(subject, date, startTime, duration, this.getZoneId());
+        long start = meeting.getStartEpochSecond();
+        long end = meeting.getEndEpochSecond();
+        MeetingIndex index = this.meetingIndexes.getIfAbsentPut(date, MeetingIndex::new);
+        if (!index.overlaps(start, end)
+                && !this.recurringMeetings.overlaps(date, start, end)
+                && this.meetings.getIfAbsentPut(date, MyCalendar::newMeetingsForDate).add(meeting))
         {
-            Meeting meeting = new Meeting(subject, date, startTime, duration, this.getZoneId());
-            return this.meetings.put(date, meeting);
+            index.add(start, end);
+            this.meetingsByStart.put(start, meeting);
+            this.occupy(meeting);
+            return true;
         }
         return false;
     }
 
     /**
-     * TODO Implement this method.
-     *
-     * Hint: Look at {@link Meeting#getInterval()}
-     * Hint: Look at {@link Interval#overlaps(Interval)}
-     * Hint: Look at {@link MyCalendar#getMeetingsForDate(LocalDate)}
-     * Hint: Look at {@link RichIterable#anySatisfyWith(Predicate2, Object)}
+     * Adds a meeting that repeats with the specified frequency from firstDate to lastDate inclusive, except on
+     * the exception dates.  The meeting is only added if none of its occurrences overlap an existing meeting.
+     * Checking the occurrences takes time proportional to the number of days between the first and last
+     * dates, but only the rule is stored.
+     */
+    public boolean addRecurringMeeting(
+            String subject,
+            LocalDate firstDate,
+            LocalDate lastDate,
+            LocalTime startTime,
+            Duration duration,
+            RecurringMeeting.Frequency frequency,
+            SetIterable<LocalDate> exceptions)
+    {
+        RecurringMeeting rule = new RecurringMeeting(
+                subject, firstDate, lastDate, startTime, duration, this.getZoneId(), frequency, exceptions);
+        for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1L))
+        {
+            if (rule.occursOn(date) && this.hasOverlappingMeeting(date, startTime, duration))
+            {
+                return false;
+            }
+        }
+        this.recurringMeetings.add(rule);
+        return true;
+    }
+
+    /**
+     * Checks the time slot against the {@link MeetingIndex} for the date, which gives the same answer as
+     * testing {@link Interval#overlaps(Interval)} against every {@link Meeting#getInterval()} on the date
+     * with a binary search and without creating an Interval per meeting.  Recurring meetings are checked
+     * only for the rules that occur on the date.
      */
     public boolean hasOverlappingMeeting(LocalDate date, LocalTime startTime, Duration duration)
     {
-        Interval timeSlot = Interval.of(date.atTime(startTime).atZone(this.getZoneId()).toInstant(), duration);
-        return this.getMeetingsForDate(date)
-                .collect(Meeting::getInterval)
-                .anySatisfyWith(Interval::overlaps, timeSlot);
+        long start = this.toEpochSecond(date, startTime);
+        long end = start + duration.getSeconds();
+        MeetingIndex index = this.meetingIndexes.get(date);
+        return (index != null && index.overlaps(start, end)) || this.recurringMeetings.overlaps(date, start, end);
     }
 
     /**
-     * TODO Implement this method.  Available timeslots include all times from {@link LocalTime#MIN}
-     * and between meetings and up to {@link LocalTime#MAX}
-     *
-     * Hint: Look at {@link MyCalendar#getMeetingsForDate(LocalDate)}
-     * Hint: Look at {@link RichIterable#injectInto(Object, Function2)}
-     * Hint: Look at {@link LocalDate#atTime(LocalTime)}
-     * Hint: Look at {@link LocalDateTime#atZone(ZoneId)}
-     * Hint: Look at {@link ZonedDateTime#toInstant()}
-     * Hint: Look at {@link Interval#of(Instant, Duration)}
+     * Adds meetings that are sorted by start and already known not to overlap each other or any meeting in
+     * the calendar.  Meetings on the same date arrive together, so the date map and the {@link MeetingIndex}
+     * for each date are built in one pass, appending to the end of each index, without any overlap checks.
      */
-    public MutableList<Interval> getAvailableTimeslots(LocalDate date)
+    void addSortedMeetings(ListIterable<Meeting> sortedMeetings)
+    {
+        ZoneDayBoundaries boundaries = ZoneDayBoundaries.of(this.getZoneId());
+        long startOfNextDay = Long.MIN_VALUE;
+        MutableSortedSet<Meeting> meetingsForDate = null;
+        MeetingIndex index = null;
+        for (int i = 0; i < sortedMeetings.size(); i++)
+        {
+            Meeting meeting = sortedMeetings.get(i);
+            long start = meeting.getStartEpochSecond();
+            long end = meeting.getEndEpochSecond();
+            if (start >= startOfNextDay)
+            {
+                LocalDate date = boundaries.dateOf(start);
+                startOfNextDay = boundaries.startOfNextDay(date);
+                meetingsForDate = this.meetings.getIfAbsentPut(date, MyCalendar::newMeetingsForDate);
+                index = this.meetingIndexes.getIfAbsentPut(date, MeetingIndex::new);
+            }
+            meetingsForDate.add(meeting);
+            index.add(start, end);
+            this.meetingsByStart.put(start, meeting);
+            this.occupy(meeting);
+        }
+    }
+
+    /**
+     * Calls the procedure with each single meeting in order of start.  Recurring meetings are not included.
+     */
+    void forEachMeeting(Procedure<Meeting> procedure)
+    {
+        this.meetingsByStart.forEachValue(procedure);
+    }
+
+    /**
+     * Marks the time of the meeting as taken in the {@link DayOccupancy} of every date it touches, and files the
+     * meeting as carried over into each of those dates after the one it starts on.  A long meeting is filed
+     * once per date it covers, so finding the meetings that run into a date never has to look back.
+     */
+    private void occupy(Meeting meeting)
+    {
+        long start = meeting.getStartEpochSecond();
+        long end = meeting.getEndEpochSecond();
+        ZoneDayBoundaries boundaries = ZoneDayBoundaries.of(this.getZoneId());
+        LocalDate startDate = boundaries.dateOf(start);
+        for (LocalDate date = startDate; boundaries.startOfDay(date) < end; date = date.plusDays(1L))
+        {
+            this.occupancies.getIfAbsentPutWith(date, this::newOccupancy, date).occupy(start, end);
+            if (!date.equals(startDate))
+            {
+                this.carriedOver.getIfAbsentPut(date, Lists.mutable::empty).add(meeting);
+            }
+        }
+    }
+
+    private DayOccupancy newOccupancy(LocalDate date)
+    {
+        ZoneDayBoundaries boundaries = ZoneDayBoundaries.of(this.getZoneId());
+        return new DayOccupancy(boundaries.startOfDay(date), boundaries.startOfNextDay(date), this.slotSeconds);
+    }
+
+    /**
+     * Returns the first free time of at least length that starts at or after from and ends by to on a date in
+     * the window, or null if there is none.  See
+     * {@link #findFreeSlot(CalendarWindow, Predicate, LocalTime, LocalTime, Duration)}.
+     */
+    public Interval findFreeSlot(CalendarWindow window, LocalTime from, LocalTime to, Duration length)
     {
-        Instant startOfDay = date.atTime(LocalTime.MIN).atZone(this.getZoneId()).toInstant();
-        Instant endofDay = date.atTime(LocalTime.MAX).atZone(this.getZoneId()).toInstant();
-        return this.getMeetingsForDate(date)
-                .collect(Meeting::getInterval)
-                .injectInto(Stacks.mutable.of(Interval.of(startOfDay, endofDay)), (slots, meeting) ->
+        return this.findFreeSlot(window, Predicates.alwaysTrue(), from, to, length);
+    }
+
+    /**
+     * Returns the first free time of at least length that starts at or after from and ends by to, searching the
+     * dates in the window that are accepted by onDates in order, or null if there is none.  Each date is
+     * searched in its {@link DayOccupancy} bitmap, a word of slots at a time, so the free time found starts on
+     * a slot boundary.  Only dates with recurring meetings are copied, to mark their occurrences.
+     */
+    public Interval findFreeSlot(
+            CalendarWindow window,
+            Predicate<? super LocalDate> onDates,
+            LocalTime from,
+            LocalTime to,
+            Duration length)
+    {
+        int slotsNeeded = (int) Math.max(1L, -Math.floorDiv(-length.getSeconds(), this.slotSeconds));
+        for (LocalDate date = window.getStart(); !date.isAfter(window.getEnd()); date = date.plusDays(1L))
+        {
+            if (onDates.accept(date))
+            {
+                DayOccupancy occupancy = this.getOccupancyWithOccurrences(date);
+                int slot = occupancy.findFreeRun(
+                        occupancy.slotAtOrAfter(this.toEpochSecond(date, from)),
+                        occupancy.slotOf(this.toEpochSecond(date, to)),
+                        slotsNeeded);
+                if (slot >= 0)
                 {
-                    slots.push(slots.pop().withEnd(meeting.getStart()));
-                    slots.push(Interval.of(meeting.getEnd(), endofDay));
-                    return slots;
-                }).toList();
+                    return Interval.of(Instant.ofEpochSecond(occupancy.getSlotStart(slot)), length);
+                }
+            }
+        }
+        return null;
+    }
+
+    private DayOccupancy getOccupancyWithOccurrences(LocalDate date)
+    {
+        DayOccupancy stored = this.occupancies.get(date);
+        if (this.recurringMeetings.isEmpty())
+        {
+            return stored == null ? this.newOccupancy(date) : stored;
+        }
+        DayOccupancy occupancy = stored == null ? this.newOccupancy(date) : stored.copy();
+        // An occurrence on the date before can run past midnight
+        LocalDateRange range = LocalDateRange.of(date.minusDays(1L), date.plusDays(1L));
+        this.recurringMeetings.forEachOccurrence(range, (rule, occurrenceDate) ->
+                occupancy.occupy(rule.getStartEpochSecondOn(occurrenceDate), rule.getEndEpochSecondOn(occurrenceDate)));
+        return occupancy;
+    }
+
+    private static MutableSortedSet<Meeting> newMeetingsForDate()
+    {
+        return SortedSets.mutable.with(Meeting.COMPARATOR);
+    }
+
+    private long toEpochSecond(LocalDate date, LocalTime time)
+    {
+        return date.atTime(time).atZone(this.getZoneId()).toEpochSecond();
+    }
+
+    /**
+     * Returns the free time on the date between meetings, from the start of the day up to the start of the
+     * next day, as Intervals.  See {@link #getAvailableTimeslots(LocalDate, Duration, MutableLongList)}.
+     */
+    public MutableList<Interval> getAvailableTimeslots(LocalDate date)
+    {
+        MutableLongList slots = LongLists.mutable.empty();
+        this.getAvailableTimeslots(date, Duration.ZERO, slots);
+        return MyCalendar.toIntervals(slots);
+    }
+
+    public MutableList<Interval> getAvailableTimeslots(LocalDate date, ZoneId viewerZone)
+    {
+        MutableLongList slots = LongLists.mutable.empty();
+        this.getAvailableTimeslots(date, viewerZone, Duration.ZERO, slots);
+        return MyCalendar.toIntervals(slots);
+    }
+
+    private static MutableList<Interval> toIntervals(MutableLongList slots)
+    {
+        MutableList<Interval> intervals = Lists.mutable.withInitialCapacity(slots.size() / 2);
+        for (int i = 0; i < slots.size(); i += 2)
+        {
+            intervals.add(Interval.of(Instant.ofEpochSecond(slots.get(i)), Instant.ofEpochSecond(slots.get(i + 1))));
+        }
+        return intervals;
+    }
+
+    /**
+     * Writes the free slots on the date of at least minimumLength into the caller's slots list as pairs of
+     * start and end epoch seconds, and returns the number of slots written.  The busy times are swept in
+     * order straight from the {@link MeetingIndex} for the date, and overlapping or nested busy times are
+     * merged, so nothing is allocated per meeting.  Meetings that start on an earlier date and run into the
+     * date are busy time too, so a date with any of those or with recurring meetings needs scratch arrays to
+     * combine them with the single meetings.
+     */
+    public int getAvailableTimeslots(LocalDate date, Duration minimumLength, MutableLongList slots)
+    {
+        long startOfDay = date.atStartOfDay(this.getZoneId()).toEpochSecond();
+        long startOfNextDay = date.plusDays(1L).atStartOfDay(this.getZoneId()).toEpochSecond();
+        MeetingIndex index = this.meetingIndexes.get(date);
+        int singleMeetings = index == null ? 0 : index.size();
+        ListIterable<Meeting> carried = this.carriedOver.get(date);
+        int carriedOver = carried == null ? 0 : carried.size();
+        LocalDate firstOccurrenceDate = date;
+        int occurrences = 0;
+        if (!this.recurringMeetings.isEmpty())
+        {
+            // Occurrences on earlier dates that end by midnight are clipped away by the sweep
+            firstOccurrenceDate = date.minusDays(this.recurringMeetings.lookbackDays());
+            for (LocalDate day = firstOccurrenceDate; !day.isAfter(date); day = day.plusDays(1L))
+            {
+                occurrences += this.recurringMeetings.countOccurrencesOn(day);
+            }
+        }
+        if (carriedOver + occurrences == 0)
+        {
+            return singleMeetings == 0
+                    ? FreeBusy.sweep(NO_TIMES, NO_TIMES, 0, startOfDay, startOfNextDay, minimumLength, slots)
+                    : FreeBusy.sweep(
+                            index.starts(),
+                            index.ends(),
+                            singleMeetings,
+                            startOfDay,
+                            startOfNextDay,
+                            minimumLength,
+                            slots);
+        }
+        long[] starts = new long[singleMeetings + carriedOver + occurrences];
+        long[] ends = new long[starts.length];
+        if (index != null)
+        {
+            index.copyInto(starts, ends, 0);
+        }
+        int count = singleMeetings;
+        for (int i = 0; i < carriedOver; i++)
+        {
+            starts[count] = carried.get(i).getStartEpochSecond();
+            ends[count] = carried.get(i).getEndEpochSecond();
+            count++;
+        }
+        for (LocalDate day = firstOccurrenceDate; !day.isAfter(date); day = day.plusDays(1L))
+        {
+            this.recurringMeetings.copyOccurrencesInto(day, starts, ends, count);
+            count += this.recurringMeetings.countOccurrencesOn(day);
+        }
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+        return FreeBusy.sweep(starts, ends, starts.length, startOfDay, startOfNextDay, minimumLength, slots);
+    }
+
+    /**
+     * Writes the free slots on the date as seen from the viewer zone into the slots list, in the same way as
+     * {@link #getAvailableTimeslots(LocalDate, Duration, MutableLongList)}.  Meetings that start on an
+     * earlier date and run into the date are included as busy time.
+     */
+    public int getAvailableTimeslots(LocalDate date, ZoneId viewerZone, Duration minimumLength, MutableLongList slots)
+    {
+        if (viewerZone.equals(this.getZoneId()))
+        {
+            return this.getAvailableTimeslots(date, minimumLength, slots);
+        }
+        ZoneDayBoundaries boundaries = ZoneDayBoundaries.of(viewerZone);
+        long from = boundaries.startOfDay(date);
+        long to = boundaries.startOfNextDay(date);
+        MutableLongList starts = LongLists.mutable.empty();
+        MutableLongList ends = LongLists.mutable.empty();
+        this.forEachBusyTime(from, to, (start, end) ->
+        {
+            starts.add(start);
+            ends.add(end);
+        });
+        return FreeBusy.sweep(
+                starts.sortThis().toArray(),
+                ends.sortThis().toArray(),
+                starts.size(),
+                from,
+                to,
+                minimumLength,
+                slots);
+    }
+
+    /**
+     * Calls the procedure with the start and end epoch seconds of each meeting, including the occurrences of
+     * recurring meetings, that is running at some time from from to to, or that starts in that time.  A meeting
+     * already running at from is either on the calendar date of from or carried over into it from an earlier
+     * date, so only the meetings of that date are read before from.
+     */
+    void forEachBusyTime(long from, long to, LongLongProcedure procedure)
+    {
+        ZoneDayBoundaries boundaries = ZoneDayBoundaries.of(this.getZoneId());
+        LocalDate firstDate = boundaries.dateOf(from);
+        ListIterable<Meeting> carried = this.carriedOver.get(firstDate);
+        if (carried != null)
+        {
+            carried.forEach(meeting -> MyCalendar.acceptBusyTime(
+                    meeting.getStartEpochSecond(), meeting.getEndEpochSecond(), from, to, procedure));
+        }
+        this.meetingsByStart.subMap(boundaries.startOfDay(firstDate), to).forEachValue(meeting ->
+                MyCalendar.acceptBusyTime(
+                        meeting.getStartEpochSecond(), meeting.getEndEpochSecond(), from, to, procedure));
+        if (!this.recurringMeetings.isEmpty())
+        {
+            LocalDateRange range = LocalDateRange.of(
+                    firstDate.minusDays(this.recurringMeetings.lookbackDays()),
+                    boundaries.dateOf(to).plusDays(1L));
+            this.recurringMeetings.forEachOccurrence(range, (rule, date) -> MyCalendar.acceptBusyTime(
+                    rule.getStartEpochSecondOn(date), rule.getEndEpochSecondOn(date), from, to, procedure));
+        }
+    }
+
+    private static void acceptBusyTime(long start, long end, long from, long to, LongLongProcedure procedure)
+    {
+        if (start < to && (end > from || start >= from))
+        {
+            procedure.value(start, end);
+        }
     }
 
     @Override
@@ -129,6 +540,7 @@ public class MyCalendar
     {
         return "MyCalendar(" +
                 "meetings=" + this.meetings +
+                ", recurringMeetings=" + this.recurringMeetings +
                 ')';
     }
 }
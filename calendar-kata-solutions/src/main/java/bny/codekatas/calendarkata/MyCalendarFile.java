@@ -0,0 +1,286 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.TimeZone;
+
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+
+/**
+ * MyCalendarFile reads and writes the single meetings of a {@link MyCalendar} in a compact binary format, so
+ * a calendar can be loaded in bulk instead of calling {@link MyCalendar#addMeeting} once per meeting.  The
+ * meetings read are sorted once, checked for overlaps in one pass, and added to the calendar's date map and
+ * day indexes directly.
+ * <p>
+ * File: int magic, then records until a zero tag.
+ * <ul>
+ * <li>SUBJECT: byte tag, short length, UTF-8 subject, which takes the next subject id</li>
+ * <li>ZONE: byte tag, short length, UTF-8 zone id, which takes the next zone number</li>
+ * <li>MEETING: byte tag, long start epoch second, int duration in seconds, int subject id, short zone number</li>
+ * </ul>
+ * A subject or zone is written the first time a meeting uses it, so the file can be written as a stream, and
+ * each subject is read back as one shared String.  Meetings are stored to the second, and recurring meetings
+ * are not stored.  A meeting is read back at the same instant in the zone of the calendar it is read into,
+ * whatever zone it was written from, so it is filed under its date in that zone.
+ */
+public final class MyCalendarFile
+{
+    private static final int MAGIC = 0x43414C31;
+    private static final byte END = 0;
+    private static final byte SUBJECT = 1;
+    private static final byte ZONE = 2;
+    private static final byte MEETING = 3;
+    private static final int MEETING_SIZE = 1 + Long.BYTES + Integer.BYTES + Integer.BYTES + Short.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Comparator<Meeting> BY_START_AND_END =
+            Comparator.comparingLong(Meeting::getStartEpochSecond).thenComparingLong(Meeting::getEndEpochSecond);
+
+    private MyCalendarFile()
+    {
+    }
+
+    /**
+     * Reads the meetings in the file into a new MyCalendar for the time zone.  Throws an IllegalStateException
+     * if the file is not a calendar file or if any of its meetings overlap.
+     */
+    public static MyCalendar read(Path path, TimeZone timezone)
+    {
+        ZoneId calendarZone = timezone.toZoneId();
+        MutableList<Meeting> meetings = Lists.mutable.empty();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+            if (in.getInt() != MAGIC)
+            {
+                throw new IllegalStateException("Not a calendar file: " + path);
+            }
+            MutableList<String> subjects = Lists.mutable.empty();
+            MutableList<ZoneId> zones = Lists.mutable.empty();
+            byte tag;
+            while ((tag = in.get()) != END)
+            {
+                int position = in.position() - 1;
+                if (tag == MEETING)
+                {
+                    long start = in.getLong();
+                    Duration duration = Duration.ofSeconds(in.getInt());
+                    int subjectId = in.getInt();
+                    int zoneNumber = in.getShort();
+                    if (subjectId < 0 || subjectId >= subjects.size() || zoneNumber < 0 || zoneNumber >= zones.size())
+                    {
+                        throw new IllegalStateException("Corrupt calendar record " + tag + " at " + position);
+                    }
+                    meetings.add(new Meeting(subjects.get(subjectId), start, duration, calendarZone));
+                }
+                else if (tag == SUBJECT)
+                {
+                    subjects.add(MyCalendarFile.readName(in));
+                }
+                else if (tag == ZONE)
+                {
+                    zones.add(ZoneId.of(MyCalendarFile.readName(in)));
+                }
+                else
+                {
+                    throw new IllegalStateException("Corrupt calendar record " + tag + " at " + position);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        meetings.sortThis(BY_START_AND_END);
+        MyCalendarFile.checkOverlaps(meetings, calendarZone, path);
+        MyCalendar calendar = new MyCalendar(timezone);
+        calendar.addSortedMeetings(meetings);
+        return calendar;
+    }
+
+    /**
+     * Checks meetings sorted by start and end for overlaps, using the same rules as
+     * {@link MyCalendar#hasOverlappingMeeting}, in one pass that tracks the latest end seen so far.  A calendar
+     * only checks a meeting against the meetings on the same date, so the latest end is reset at the start of
+     * each date in the calendar's zone, and a meeting that runs past midnight does not clash with the next day.
+     * A calendar also holds at most one meeting starting at each instant, so a meeting that starts at the same
+     * instant as the one before it is rejected even if one of them is empty.
+     */
+    private static void checkOverlaps(ListIterable<Meeting> sortedMeetings, ZoneId zoneId, Path path)
+    {
+        ZoneDayBoundaries boundaries = ZoneDayBoundaries.of(zoneId);
+        long startOfNextDay = Long.MIN_VALUE;
+        long latestEnd = Long.MIN_VALUE;
+        for (int i = 0; i < sortedMeetings.size(); i++)
+        {
+            Meeting meeting = sortedMeetings.get(i);
+            if (meeting.getStartEpochSecond() >= startOfNextDay)
+            {
+                startOfNextDay = boundaries.startOfNextDay(boundaries.dateOf(meeting.getStartEpochSecond()));
+                latestEnd = Long.MIN_VALUE;
+            }
+            Meeting previous = i == 0 ? null : sortedMeetings.get(i - 1);
+            if (meeting.getStartEpochSecond() < latestEnd
+                    || (previous != null && previous.getStartEpochSecond() == meeting.getStartEpochSecond()))
+            {
+                throw new IllegalStateException("Overlapping meeting in " + path + ": " + meeting);
+            }
+            latestEnd = Math.max(latestEnd, meeting.getEndEpochSecond());
+        }
+    }
+
+    private static String readName(ByteBuffer in)
+    {
+        byte[] name = new byte[in.getShort()];
+        in.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the single meetings of the calendar to the file, replacing anything already there.
+     */
+    public static void write(MyCalendar calendar, Path path)
+    {
+        try (Writer writer = MyCalendarFile.newWriter(path))
+        {
+            calendar.forEachMeeting(writer::write);
+        }
+    }
+
+    public static Writer newWriter(Path path)
+    {
+        return new Writer(path);
+    }
+
+    /**
+     * A Writer streams meetings to a calendar file through a fixed size buffer, so writing a calendar takes
+     * the same memory however many meetings it has.  The file is complete once the Writer is closed.
+     */
+    public static final class Writer implements AutoCloseable
+    {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final MutableObjectIntMap<String> subjectIds = ObjectIntMaps.mutable.empty();
+        private final MutableObjectIntMap<ZoneId> zoneNumbers = ObjectIntMaps.mutable.empty();
+
+        private Writer(Path path)
+        {
+            try
+            {
+                this.channel = FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            this.buffer.putInt(MAGIC);
+        }
+
+        public void write(Meeting meeting)
+        {
+            int subjectId = this.subjectIds.getIfAbsent(meeting.getSubject(), -1);
+            if (subjectId < 0)
+            {
+                subjectId = this.subjectIds.size();
+                this.subjectIds.put(meeting.getSubject(), subjectId);
+                this.writeName(SUBJECT, meeting.getSubject());
+            }
+            int zoneNumber = this.zoneNumbers.getIfAbsent(meeting.getZoneId(), -1);
+            if (zoneNumber < 0)
+            {
+                zoneNumber = this.zoneNumbers.size();
+                this.zoneNumbers.put(meeting.getZoneId(), zoneNumber);
+                this.writeName(ZONE, meeting.getZoneId().getId());
+            }
+            this.ensureRemaining(MEETING_SIZE);
+            this.buffer.put(MEETING)
+                    .putLong(meeting.getStartEpochSecond())
+                    .putInt(Math.toIntExact(meeting.getEndEpochSecond() - meeting.getStartEpochSecond()))
+                    .putInt(subjectId)
+                    .putShort((short) zoneNumber);
+        }
+
+        private void writeName(byte tag, String name)
+        {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE)
+            {
+                throw new IllegalArgumentException("Name is too long to write: " + name.length() + " characters");
+            }
+            this.ensureRemaining(1 + Short.BYTES + bytes.length);
+            this.buffer.put(tag).putShort((short) bytes.length).put(bytes);
+        }
+
+        private void ensureRemaining(int size)
+        {
+            if (this.buffer.remaining() < size)
+            {
+                this.flush();
+            }
+        }
+
+        private void flush()
+        {
+            this.buffer.flip();
+            try
+            {
+                while (this.buffer.hasRemaining())
+                {
+                    this.channel.write(this.buffer);
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close()
+        {
+            this.ensureRemaining(1);
+            this.buffer.put(END);
+            this.flush();
+            try
+            {
+                this.channel.close();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.api.set.SetIterable;
+import org.eclipse.collections.impl.factory.Sets;
+
+/**
+ * A RecurringMeeting is a rule for a meeting that repeats daily, weekly or monthly from a first date up to and
+ * including a last date, skipping any exception dates.  Only the rule is stored.  An occurrence is created as
+ * a {@link Meeting} when a date it falls on is asked for.
+ */
+public class RecurringMeeting
+{
+    public enum Frequency
+    {
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+
+    private final String subject;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final LocalTime startTime;
+    private final Duration duration;
+    private final ZoneId zoneId;
+    private final Frequency frequency;
+    private final ImmutableSet<LocalDate> exceptions;
+
+    public RecurringMeeting(
+            String subject,
+            LocalDate firstDate,
+            LocalDate lastDate,
+            LocalTime startTime,
+            Duration duration,
+            ZoneId zoneId,
+            Frequency frequency,
+            SetIterable<LocalDate> exceptions)
+    {
+        if (lastDate.isBefore(firstDate))
+        {
+            throw new IllegalArgumentException("The last date " + lastDate + " is before the first date " + firstDate);
+        }
+        this.subject = subject;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.startTime = startTime;
+        this.duration = duration;
+        this.zoneId = zoneId;
+        this.frequency = frequency;
+        this.exceptions = Sets.immutable.withAll(exceptions);
+    }
+
+    public boolean occursOn(LocalDate date)
+    {
+        if (date.isBefore(this.firstDate) || date.isAfter(this.lastDate) || this.exceptions.contains(date))
+        {
+            return false;
+        }
+        return switch (this.frequency)
+        {
+            case DAILY -> true;
+            case WEEKLY -> date.getDayOfWeek() == this.firstDate.getDayOfWeek();
+            case MONTHLY -> date.getDayOfMonth() == this.firstDate.getDayOfMonth();
+        };
+    }
+
+    public Meeting getOccurrenceOn(LocalDate date)
+    {
+        return new Meeting(this.subject, date, this.startTime, this.duration, this.zoneId);
+    }
+
+    /**
+     * Returns true if the occurrence on the date overlaps the time slot from start to end in epoch seconds,
+     * using the same rules as {@link Meeting#overlaps(long, long)}.  The caller must check
+     * {@link #occursOn(LocalDate)} first.
+     */
+    public boolean overlapsOn(LocalDate date, long start, long end)
+    {
+        long occurrenceStart = this.getStartEpochSecondOn(date);
+        long occurrenceEnd = occurrenceStart + this.duration.getSeconds();
+        return (start == occurrenceStart && end == occurrenceEnd)
+                || (occurrenceStart < end && start < occurrenceEnd);
+    }
+
+    public long getStartEpochSecondOn(LocalDate date)
+    {
+        return date.atTime(this.startTime).atZone(this.zoneId).toEpochSecond();
+    }
+
+    public long getEndEpochSecondOn(LocalDate date)
+    {
+        return this.getStartEpochSecondOn(date) + this.duration.getSeconds();
+    }
+
+    public String getSubject()
+    {
+        return this.subject;
+    }
+
+    public LocalDate getFirstDate()
+    {
+        return this.firstDate;
+    }
+
+    public LocalDate getLastDate()
+    {
+        return this.lastDate;
+    }
+
+    public LocalTime getStartTime()
+    {
+        return this.startTime;
+    }
+
+    public Duration getDuration()
+    {
+        return this.duration;
+    }
+
+    public Frequency getFrequency()
+    {
+        return this.frequency;
+    }
+
+    public ImmutableSet<LocalDate> getExceptions()
+    {
+        return this.exceptions;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RecurringMeeting(" +
+                "subject='" + this.subject + '\'' +
+                ", frequency=" + this.frequency +
+                ", firstDate=" + this.firstDate +
+                ", lastDate=" + this.lastDate +
+                ", startTime=" + this.startTime +
+                ", duration=" + this.duration +
+                ", exceptions=" + this.exceptions +
+                ')';
+    }
+}
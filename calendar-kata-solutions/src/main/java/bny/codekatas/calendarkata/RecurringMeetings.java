@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.time.LocalDate;
+
+import org.eclipse.collections.api.block.procedure.Procedure2;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.set.sorted.MutableSortedSet;
+import org.eclipse.collections.api.set.sorted.SortedSetIterable;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.SortedSets;
+import org.threeten.extra.LocalDateRange;
+
+/**
+ * RecurringMeetings holds the recurrence rules of a {@link MyCalendar} and expands them one date at a time.  A
+ * query for a date only creates Meetings for the rules that occur on that date, so memory grows with the
+ * number of rules and not with the number of occurrences.
+ */
+public class RecurringMeetings
+{
+    private static final long SHORTEST_DAY_SECONDS = 23L * 60L * 60L;
+
+    private final MutableList<RecurringMeeting> rules = Lists.mutable.empty();
+    private long longestSeconds;
+
+    void add(RecurringMeeting rule)
+    {
+        this.rules.add(rule);
+        this.longestSeconds = Math.max(this.longestSeconds, rule.getDuration().getSeconds());
+    }
+
+    /**
+     * Returns how many days before a date an occurrence can start and still run into the date, from the longest
+     * rule and the shortest day, which is 23 hours when the clocks go forward.
+     */
+    int lookbackDays()
+    {
+        return (int) (this.longestSeconds / SHORTEST_DAY_SECONDS) + 1;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.rules.isEmpty();
+    }
+
+    /**
+     * Returns the meetings on the date, adding any occurrences of the rules to the single meetings.  If no
+     * rule occurs on the date the single meetings are returned as they are.
+     */
+    public SortedSetIterable<Meeting> withOccurrencesOn(LocalDate date, SortedSetIterable<Meeting> meetings)
+    {
+        if (!this.rules.anySatisfyWith(RecurringMeeting::occursOn, date))
+        {
+            return meetings;
+        }
+        MutableSortedSet<Meeting> merged = SortedSets.mutable.withAll(Meeting.COMPARATOR, meetings);
+        this.rules.forEach(rule ->
+        {
+            if (rule.occursOn(date))
+            {
+                merged.add(rule.getOccurrenceOn(date));
+            }
+        });
+        return merged;
+    }
+
+    /**
+     * Returns the number of rules that occur on the date.
+     */
+    public int countOccurrencesOn(LocalDate date)
+    {
+        return this.rules.countWith(RecurringMeeting::occursOn, date);
+    }
+
+    /**
+     * Copies the start and end epoch seconds of the occurrences on the date into the arrays at the offset.
+     */
+    void copyOccurrencesInto(LocalDate date, long[] starts, long[] ends, int offset)
+    {
+        int index = offset;
+        for (int i = 0; i < this.rules.size(); i++)
+        {
+            RecurringMeeting rule = this.rules.get(i);
+            if (rule.occursOn(date))
+            {
+                starts[index] = rule.getStartEpochSecondOn(date);
+                ends[index] = rule.getEndEpochSecondOn(date);
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Calls the procedure with each rule and date for the occurrences in the range.
+     */
+    void forEachOccurrence(LocalDateRange range, Procedure2<RecurringMeeting, LocalDate> procedure)
+    {
+        if (this.rules.isEmpty())
+        {
+            return;
+        }
+        for (LocalDate date = range.getStart(); date.isBefore(range.getEnd()); date = date.plusDays(1L))
+        {
+            for (int i = 0; i < this.rules.size(); i++)
+            {
+                RecurringMeeting rule = this.rules.get(i);
+                if (rule.occursOn(date))
+                {
+                    procedure.value(rule, date);
+                }
+            }
+        }
+    }
+
+    public boolean overlaps(LocalDate date, long start, long end)
+    {
+        return this.rules.anySatisfy(rule -> rule.occursOn(date) && rule.overlapsOn(date, start, end));
+    }
+
+    public int countOccurrences(LocalDateRange range)
+    {
+        if (this.rules.isEmpty())
+        {
+            return 0;
+        }
+        return (int) range.stream().mapToLong(date -> this.rules.countWith(RecurringMeeting::occursOn, date)).sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.rules.toString();
+    }
+}
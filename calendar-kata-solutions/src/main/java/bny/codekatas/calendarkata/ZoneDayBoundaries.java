@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+import org.eclipse.collections.api.map.ConcurrentMutableMap;
+import org.eclipse.collections.impl.map.mutable.ConcurrentHashMap;
+
+/**
+ * ZoneDayBoundaries caches the epoch second at which each day starts in a zone, one table per year, so a
+ * calendar can be viewed in any zone without resolving every meeting against the zone rules.  A table is
+ * built the first time a date in its year is asked for, and the tables are shared by every calendar.
+ */
+final class ZoneDayBoundaries
+{
+    private static final ConcurrentMutableMap<ZoneId, ZoneDayBoundaries> ZONES = ConcurrentHashMap.newMap();
+
+    private final ZoneId zoneId;
+    private final ConcurrentMutableMap<Integer, long[]> startsOfDaysByYear = ConcurrentHashMap.newMap();
+
+    private ZoneDayBoundaries(ZoneId zoneId)
+    {
+        this.zoneId = zoneId;
+    }
+
+    static ZoneDayBoundaries of(ZoneId zoneId)
+    {
+        return ZONES.getIfAbsentPutWith(zoneId, ZoneDayBoundaries::new, zoneId);
+    }
+
+    long startOfDay(LocalDate date)
+    {
+        return this.startsOfDays(date.getYear())[date.getDayOfYear() - 1];
+    }
+
+    long startOfNextDay(LocalDate date)
+    {
+        return this.startsOfDays(date.getYear())[date.getDayOfYear()];
+    }
+
+    /**
+     * Returns the date in this zone of the epoch second.  The date in UTC is at most a day away, so only the
+     * table for its year or a neighbouring year has to be searched.
+     */
+    LocalDate dateOf(long epochSecond)
+    {
+        int year = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, 86_400L)).getYear();
+        long[] starts = this.startsOfDays(year);
+        if (epochSecond < starts[0])
+        {
+            starts = this.startsOfDays(--year);
+        }
+        else if (epochSecond >= starts[starts.length - 1])
+        {
+            starts = this.startsOfDays(++year);
+        }
+        int index = Arrays.binarySearch(starts, epochSecond);
+        int dayOfYear = index >= 0 ? index + 1 : -index - 1;
+        return LocalDate.ofYearDay(year, dayOfYear);
+    }
+
+    /**
+     * Returns the start of each day of the year followed by the start of the next year.
+     */
+    private long[] startsOfDays(int year)
+    {
+        return this.startsOfDaysByYear.getIfAbsentPutWith(year, this::computeStartsOfDays, year);
+    }
+
+    private long[] computeStartsOfDays(int year)
+    {
+        LocalDate date = LocalDate.ofYearDay(year, 1);
+        long[] starts = new long[date.lengthOfYear() + 1];
+        for (int i = 0; i < starts.length; i++)
+        {
+            starts[i] = date.atStartOfDay(this.zoneId).toEpochSecond();
+            date = date.plusDays(1L);
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.threeten.extra.LocalDateRange;
+
+public class ConcurrentMyCalendarTest
+{
+    private static final LocalDate MONDAY = LocalDate.of(2017, 7, 3);
+
+    private final ConcurrentMyCalendar calendar = new ConcurrentMyCalendar(TimeZone.getTimeZone("UTC"));
+
+    @Test
+    public void addMeeting()
+    {
+        Assertions.assertTrue(this.calendar.addMeeting("Lunch", MONDAY, LocalTime.NOON, Duration.ofHours(1)));
+        Assertions.assertFalse(
+                this.calendar.addMeeting("Lunch", MONDAY, LocalTime.NOON.plusMinutes(30), Duration.ofHours(1)));
+        Assertions.assertTrue(this.calendar.addMeeting("Coffee", MONDAY, LocalTime.of(13, 0), Duration.ofMinutes(15)));
+        Assertions.assertTrue(
+                this.calendar.hasOverlappingMeeting(MONDAY, LocalTime.of(13, 10), Duration.ofMinutes(10)));
+        Assertions.assertFalse(
+                this.calendar.hasOverlappingMeeting(MONDAY, LocalTime.of(13, 15), Duration.ofMinutes(10)));
+        Assertions.assertEquals(2, this.calendar.getMeetingsForDate(MONDAY).size());
+        Assertions.assertEquals(0, this.calendar.getMeetingsForDate(MONDAY.plusDays(1)).size());
+        Assertions.assertEquals(
+                2,
+                this.calendar.getNumberOfMeetings(LocalDateRange.ofClosed(MONDAY, MONDAY.plusDays(4))));
+    }
+
+    @Test
+    public void concurrentBookingsNeverOverlap() throws Exception
+    {
+        int threads = 8;
+        int attemptsPerThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try
+        {
+            MutableList<Future<Integer>> futures = Lists.mutable.empty();
+            for (int thread = 0; thread < threads; thread++)
+            {
+                int seed = thread;
+                futures.add(executor.submit(() ->
+                {
+                    Random random = new Random(seed);
+                    start.await();
+                    int booked = 0;
+                    for (int i = 0; i < attemptsPerThread; i++)
+                    {
+                        LocalDate date = MONDAY.plusDays(random.nextInt(3));
+                        LocalTime startTime = LocalTime.of(8, 0).plusMinutes(5L * random.nextInt(120));
+                        Duration duration = Duration.ofMinutes(5L * (1 + random.nextInt(6)));
+                        if (this.calendar.addMeeting("Booking " + seed + "-" + i, date, startTime, duration))
+                        {
+                            booked++;
+                        }
+                    }
+                    return booked;
+                }));
+            }
+            start.countDown();
+            int booked = 0;
+            for (Future<Integer> future : futures)
+            {
+                booked += future.get(30L, TimeUnit.SECONDS);
+            }
+
+            Assertions.assertEquals(
+                    booked,
+                    this.calendar.getNumberOfMeetings(LocalDateRange.ofClosed(MONDAY, MONDAY.plusDays(2))));
+            for (int day = 0; day < 3; day++)
+            {
+                MutableList<Meeting> meetings = this.calendar.getMeetingsForDate(MONDAY.plusDays(day)).toList();
+                for (int i = 1; i < meetings.size(); i++)
+                {
+                    Assertions.assertFalse(
+                            meetings.get(i - 1).getInterval().overlaps(meetings.get(i).getInterval()),
+                            meetings.get(i - 1) + " overlaps " + meetings.get(i));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DayOccupancyTest
+{
+    @Test
+    public void findFreeRunAcrossWords()
+    {
+        // 300 slots of 1 second, spanning five words
+        DayOccupancy occupancy = new DayOccupancy(1_000L, 1_300L, 1);
+        occupancy.occupy(1_010L, 1_070L);
+        occupancy.occupy(1_100L, 1_230L);
+        occupancy.occupy(1_250L, 1_251L);
+        Assertions.assertTrue(occupancy.isOccupied(10));
+        Assertions.assertTrue(occupancy.isOccupied(69));
+        Assertions.assertFalse(occupancy.isOccupied(70));
+        Assertions.assertTrue(occupancy.isOccupied(128));
+
+        Assertions.assertEquals(0, occupancy.findFreeRun(0, 300, 10));
+        Assertions.assertEquals(70, occupancy.findFreeRun(0, 300, 11));
+        Assertions.assertEquals(70, occupancy.findFreeRun(0, 300, 30));
+        Assertions.assertEquals(251, occupancy.findFreeRun(0, 300, 31));
+        Assertions.assertEquals(-1, occupancy.findFreeRun(0, 300, 50));
+        Assertions.assertEquals(230, occupancy.findFreeRun(200, 250, 20));
+        Assertions.assertEquals(-1, occupancy.findFreeRun(200, 249, 20));
+    }
+
+    @Test
+    public void occupyRoundsOutToWholeSlots()
+    {
+        DayOccupancy occupancy = new DayOccupancy(0L, 86_400L, 300);
+        occupancy.occupy(-600L, 1L);
+        occupancy.occupy(899L, 901L);
+        occupancy.occupy(86_000L, 90_000L);
+        Assertions.assertTrue(occupancy.isOccupied(0));
+        Assertions.assertFalse(occupancy.isOccupied(1));
+        Assertions.assertTrue(occupancy.isOccupied(2));
+        Assertions.assertTrue(occupancy.isOccupied(3));
+        Assertions.assertEquals(4, occupancy.findFreeRun(1, 288, 2));
+        Assertions.assertEquals(-1, occupancy.findFreeRun(286, 288, 1));
+        Assertions.assertEquals(1, occupancy.slotAtOrAfter(1L));
+        Assertions.assertEquals(0, occupancy.slotOf(299L));
+    }
+}
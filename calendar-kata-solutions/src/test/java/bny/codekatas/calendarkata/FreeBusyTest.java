@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.eclipse.collections.impl.parallel.ParallelIterate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.threeten.extra.Interval;
+
+public class FreeBusyTest
+{
+    private static final LocalDate MONDAY = LocalDate.of(2017, 7, 3);
+
+    private final MyCalendar london = new MyCalendar(TimeZone.getTimeZone("Europe/London"));
+    private final MyCalendar newYork = new MyCalendar(TimeZone.getTimeZone("America/New_York"));
+    private final MutableList<MyCalendar> calendars = Lists.mutable.with(this.london, this.newYork);
+
+    private Interval workingDay()
+    {
+        ZoneId zoneId = this.london.getZoneId();
+        return Interval.of(
+                MONDAY.atTime(9, 0).atZone(zoneId).toInstant(),
+                MONDAY.atTime(18, 0).atZone(zoneId).toInstant());
+    }
+
+    private Interval londonTime(LocalTime start, LocalTime end)
+    {
+        ZoneId zoneId = this.london.getZoneId();
+        return Interval.of(
+                MONDAY.atTime(start).atZone(zoneId).toInstant(),
+                MONDAY.atTime(end).atZone(zoneId).toInstant());
+    }
+
+    @Test
+    public void findCommonAvailability()
+    {
+        this.london.addMeeting("Stand up", MONDAY, LocalTime.of(9, 0), Duration.ofMinutes(30));
+        this.london.addMeeting("Lunch", MONDAY, LocalTime.NOON, Duration.ofHours(1));
+        this.london.addMeeting("Review", MONDAY, LocalTime.of(15, 0), Duration.ofMinutes(15));
+        // 10:00 to 11:30 and 14:45 to 15:00 in London
+        this.newYork.addMeeting("Breakfast", MONDAY, LocalTime.of(5, 0), Duration.ofMinutes(90));
+        this.newYork.addMeeting("Planning", MONDAY, LocalTime.of(9, 45), Duration.ofMinutes(15));
+        // Runs over midnight into the window
+        this.london.addMeeting("Night shift", MONDAY.minusDays(1), LocalTime.of(23, 0), Duration.ofHours(10));
+
+        MutableList<Interval> expected = Lists.mutable.with(
+                this.londonTime(LocalTime.of(9, 30), LocalTime.of(10, 0)),
+                this.londonTime(LocalTime.of(11, 30), LocalTime.NOON),
+                this.londonTime(LocalTime.of(13, 0), LocalTime.of(14, 45)),
+                this.londonTime(LocalTime.of(15, 15), LocalTime.of(18, 0)));
+        Assertions.assertEquals(
+                expected,
+                FreeBusy.findCommonAvailability(this.calendars, this.workingDay(), Duration.ofMinutes(30)));
+        Assertions.assertEquals(
+                Lists.mutable.with(expected.get(2), expected.get(3)),
+                FreeBusy.findCommonAvailability(this.calendars, this.workingDay(), Duration.ofMinutes(31)));
+
+        ExecutorService executor = ParallelIterate.newPooledExecutor(FreeBusyTest.class.getSimpleName(), true);
+        try
+        {
+            Assertions.assertEquals(
+                    expected,
+                    FreeBusy.findCommonAvailability(
+                            this.calendars,
+                            this.workingDay(),
+                            Duration.ofMinutes(30),
+                            executor));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void findCommonAvailabilityDuringLongMeeting()
+    {
+        // Starts three days before the window and runs until 10:00 in New York, which is 15:00 in London
+        this.newYork.addMeeting("Conference", MONDAY.minusDays(3), LocalTime.of(10, 0), Duration.ofDays(3L));
+        Assertions.assertEquals(
+                Lists.mutable.with(this.londonTime(LocalTime.of(15, 0), LocalTime.of(18, 0))),
+                FreeBusy.findCommonAvailability(this.calendars, this.workingDay(), Duration.ofMinutes(30)));
+    }
+
+    @Test
+    public void findCommonAvailabilityWithoutMeetings()
+    {
+        Assertions.assertEquals(
+                Lists.mutable.with(this.workingDay()),
+                FreeBusy.findCommonAvailability(this.calendars, this.workingDay(), Duration.ofHours(1)));
+        Assertions.assertEquals(
+                Lists.mutable.empty(),
+                FreeBusy.findCommonAvailability(this.calendars, this.workingDay(), Duration.ofHours(10)));
+    }
+
+    @Test
+    public void sweepMergesOverlappingAndNestedBusyTimes()
+    {
+        // 10 to 40 overlaps 30 to 50, 60 to 90 contains 70 to 80, and 95 to 120 runs past the end
+        long[] starts = {10L, 30L, 60L, 70L, 95L};
+        long[] ends = {40L, 50L, 80L, 90L, 120L};
+        MutableLongList slots = LongLists.mutable.empty();
+        Assertions.assertEquals(3, FreeBusy.sweep(starts, ends, starts.length, 0L, 100L, Duration.ZERO, slots));
+        Assertions.assertEquals(LongLists.mutable.with(0L, 10L, 50L, 60L, 90L, 95L), slots);
+
+        slots.clear();
+        Assertions.assertEquals(
+                2,
+                FreeBusy.sweep(starts, ends, starts.length, 0L, 100L, Duration.ofSeconds(10L), slots));
+        Assertions.assertEquals(LongLists.mutable.with(0L, 10L, 50L, 60L), slots);
+
+        slots.clear();
+        Assertions.assertEquals(1, FreeBusy.sweep(starts, ends, starts.length, 20L, 70L, Duration.ZERO, slots));
+        Assertions.assertEquals(LongLists.mutable.with(50L, 60L), slots);
+
+        slots.clear();
+        Assertions.assertEquals(1, FreeBusy.sweep(starts, ends, 0, 0L, 100L, Duration.ZERO, slots));
+        Assertions.assertEquals(LongLists.mutable.with(0L, 100L), slots);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MyCalendarFileTest
+{
+    private static final TimeZone LONDON = TimeZone.getTimeZone("Europe/London");
+    private static final LocalDate MONDAY = LocalDate.of(2017, 7, 3);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void writeAndRead()
+    {
+        MyCalendar calendar = new MyCalendar(LONDON);
+        calendar.addMeeting("Stand up", MONDAY, LocalTime.of(9, 0), Duration.ofMinutes(15));
+        calendar.addMeeting("Lunch", MONDAY, LocalTime.NOON, Duration.ofHours(1));
+        calendar.addMeeting("Stand up", MONDAY.plusDays(1), LocalTime.of(9, 0), Duration.ofMinutes(15));
+        calendar.addMeeting("Night shift", MONDAY.plusDays(1), LocalTime.of(23, 0), Duration.ofHours(8));
+        calendar.addMeeting("Stand up", MONDAY.plusDays(2), LocalTime.of(9, 0), Duration.ofMinutes(15));
+        Path path = this.directory.resolve("calendar.bin");
+        MyCalendarFile.write(calendar, path);
+
+        MyCalendar read = MyCalendarFile.read(path, LONDON);
+        for (LocalDate date = MONDAY; date.isBefore(MONDAY.plusDays(7)); date = date.plusDays(1))
+        {
+            Assertions.assertEquals(calendar.getMeetingsForDate(date), read.getMeetingsForDate(date));
+            Assertions.assertEquals(calendar.getAvailableTimeslots(date), read.getAvailableTimeslots(date));
+        }
+        Assertions.assertEquals(
+                calendar.getMeetingsForWorkWeekOf(MONDAY).getNumberOfMeetings(),
+                read.getMeetingsForWorkWeekOf(MONDAY).getNumberOfMeetings());
+        Assertions.assertSame(
+                read.getMeetingsForDate(MONDAY).getFirst().getSubject(),
+                read.getMeetingsForDate(MONDAY.plusDays(1)).getFirst().getSubject());
+        Assertions.assertTrue(
+                read.hasOverlappingMeeting(MONDAY.plusDays(1), LocalTime.of(9, 5), Duration.ofMinutes(1)));
+        Assertions.assertFalse(read.addMeeting("Lunch", MONDAY, LocalTime.NOON, Duration.ofMinutes(30)));
+        Assertions.assertTrue(read.addMeeting("Lunch", MONDAY.plusDays(1), LocalTime.NOON, Duration.ofMinutes(30)));
+    }
+
+    @Test
+    public void readRejectsOverlappingMeetings()
+    {
+        ZoneId zoneId = LONDON.toZoneId();
+        Path path = this.directory.resolve("overlapping.bin");
+        try (MyCalendarFile.Writer writer = MyCalendarFile.newWriter(path))
+        {
+            writer.write(new Meeting("Lunch", MONDAY, LocalTime.NOON, Duration.ofHours(1), zoneId));
+            writer.write(new Meeting("Stand up", MONDAY, LocalTime.of(9, 0), Duration.ofMinutes(15), zoneId));
+            writer.write(new Meeting("Review", MONDAY, LocalTime.of(12, 30), Duration.ofMinutes(15), zoneId));
+        }
+        Assertions.assertThrows(IllegalStateException.class, () -> MyCalendarFile.read(path, LONDON));
+    }
+
+    @Test
+    public void readRejectsMeetingsStartingAtTheSameInstant()
+    {
+        ZoneId zoneId = LONDON.toZoneId();
+        Path path = this.directory.resolve("same-start.bin");
+        try (MyCalendarFile.Writer writer = MyCalendarFile.newWriter(path))
+        {
+            writer.write(new Meeting("Lunch", MONDAY, LocalTime.NOON, Duration.ofHours(1), zoneId));
+            writer.write(new Meeting("Reminder", MONDAY, LocalTime.NOON, Duration.ZERO, zoneId));
+        }
+        Assertions.assertThrows(IllegalStateException.class, () -> MyCalendarFile.read(path, LONDON));
+    }
+
+    @Test
+    public void readRejectsUnknownSubject() throws IOException
+    {
+        byte[] zone = "UTC".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(64)
+                .putInt(0x43414C31)
+                .put((byte) 2).putShort((short) zone.length).put(zone)
+                .put((byte) 3).putLong(0L).putInt(60).putInt(5).putShort((short) 0)
+                .put((byte) 0);
+        Path path = this.directory.resolve("unknown-subject.bin");
+        Files.write(path, Arrays.copyOf(buffer.array(), buffer.position()));
+        Assertions.assertThrows(IllegalStateException.class, () -> MyCalendarFile.read(path, LONDON));
+    }
+
+    @Test
+    public void writeAndReadMeetingPastMidnight()
+    {
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        MyCalendar calendar = new MyCalendar(utc);
+        LocalDate tuesday = MONDAY.plusDays(1);
+        Assertions.assertTrue(calendar.addMeeting("Night shift", MONDAY, LocalTime.of(23, 0), Duration.ofHours(2)));
+        Assertions.assertTrue(calendar.addMeeting("Stand up", tuesday, LocalTime.of(0, 30), Duration.ofMinutes(15)));
+        Path path = this.directory.resolve("midnight.bin");
+        MyCalendarFile.write(calendar, path);
+
+        MyCalendar read = MyCalendarFile.read(path, utc);
+        Assertions.assertEquals(calendar.getMeetingsForDate(MONDAY), read.getMeetingsForDate(MONDAY));
+        Assertions.assertEquals(calendar.getMeetingsForDate(tuesday), read.getMeetingsForDate(tuesday));
+    }
+
+    @Test
+    public void readIntoAnotherZone()
+    {
+        MyCalendar calendar = new MyCalendar(TimeZone.getTimeZone("America/New_York"));
+        calendar.addMeeting("Late call", MONDAY, LocalTime.of(20, 0), Duration.ofHours(1));
+        Path path = this.directory.resolve("new-york.bin");
+        MyCalendarFile.write(calendar, path);
+
+        // 20:00 on Monday in New York is 00:00 on Tuesday in UTC
+        MyCalendar read = MyCalendarFile.read(path, TimeZone.getTimeZone("UTC"));
+        Assertions.assertTrue(read.getMeetingsForDate(MONDAY).isEmpty());
+        Meeting meeting = read.getMeetingsForDate(MONDAY.plusDays(1)).getOnly();
+        Assertions.assertEquals(LocalTime.MIDNIGHT, meeting.getStartTime());
+        Assertions.assertEquals(read.getZoneId(), meeting.getZoneId());
+        Assertions.assertEquals(
+                calendar.getMeetingsForDate(MONDAY).getOnly().getStartEpochSecond(),
+                meeting.getStartEpochSecond());
+        Assertions.assertTrue(
+                read.hasOverlappingMeeting(MONDAY.plusDays(1), LocalTime.of(0, 30), Duration.ofMinutes(1)));
+    }
+}
@@ -16,14 +16,23 @@
 
 package bny.codekatas.calendarkata;
 
+import java.io.StringWriter;
+import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.TimeZone;
 
+import org.eclipse.collections.api.block.predicate.Predicate;
 import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
 import org.eclipse.collections.api.set.sorted.SortedSetIterable;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.Sets;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
 import org.eclipse.collections.impl.test.Verify;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -144,6 +153,52 @@ public class MyCalendarTest
                 Duration.ofHours(1)));
     }
 
+    @Test
+    public void hasOverlappingMeetingMatchesIntervalOverlaps()
+    {
+        LocalDate date = LocalDate.of(2017, 7, 10);
+        for (int i = 0; i < 48; i++)
+        {
+            this.calendar.addMeeting(
+                    "Booking " + i,
+                    date,
+                    LocalTime.of(i % 24, i < 24 ? 0 : 30),
+                    Duration.ofMinutes(20));
+        }
+        Verify.assertSize(48, this.calendar.getMeetingsForDate(date));
+        Duration[] durations = {Duration.ZERO, Duration.ofMinutes(5), Duration.ofMinutes(10), Duration.ofMinutes(90)};
+        for (int minute = 0; minute < 24 * 60; minute += 5)
+        {
+            LocalTime startTime = LocalTime.MIN.plusMinutes(minute);
+            for (Duration duration : durations)
+            {
+                Interval timeSlot =
+                        Interval.of(date.atTime(startTime).atZone(this.calendar.getZoneId()).toInstant(), duration);
+                boolean expected = this.calendar.getMeetingsForDate(date)
+                        .collect(Meeting::getInterval)
+                        .anySatisfyWith(Interval::overlaps, timeSlot);
+                Assertions.assertEquals(
+                        expected,
+                        this.calendar.hasOverlappingMeeting(date, startTime, duration),
+                        startTime + " for " + duration);
+            }
+        }
+    }
+
+    @Test
+    public void meetingResolvesBoundsOnce()
+    {
+        ZoneId zoneId = ZoneId.of("America/New_York");
+        LocalDate date = LocalDate.of(2024, 3, 10);
+        Meeting meeting = new Meeting("Daylight Saving", date, LocalTime.of(1, 30), Duration.ofHours(1), zoneId);
+        Interval expected = Interval.of(date.atTime(1, 30).atZone(zoneId).toInstant(), Duration.ofHours(1));
+        Assertions.assertEquals(expected, meeting.getInterval());
+        Assertions.assertEquals(expected.getStart().getEpochSecond(), meeting.getStartEpochSecond());
+        Assertions.assertEquals(expected.getEnd().getEpochSecond(), meeting.getEndEpochSecond());
+        Assertions.assertTrue(meeting.overlaps(expected));
+        Assertions.assertFalse(meeting.overlaps(Interval.of(expected.getEnd(), Duration.ofHours(1))));
+    }
+
     @Test
     public void getMeetingsForDate()
     {
@@ -176,6 +231,69 @@ public class MyCalendarTest
         System.out.println(month);
     }
 
+    @Test
+    public void calendarWindowsAreViews()
+    {
+        FullMonth month = this.calendar.getMeetingsForYearMonth(2017, Month.JULY);
+        WorkWeek week = this.calendar.getMeetingsForWorkWeekOf(LocalDate.of(2017, 7, 6));
+        this.calendar.addMeeting("Review", LocalDate.of(2017, 7, 4), LocalTime.of(9, 0), Duration.ofHours(1));
+        this.calendar.addMeeting("Next Month", LocalDate.of(2017, 8, 1), LocalTime.of(9, 0), Duration.ofHours(1));
+        Assertions.assertEquals(7, month.getNumberOfMeetings());
+        Assertions.assertEquals(5, week.getNumberOfMeetings());
+    }
+
+    @Test
+    public void addRecurringMeeting()
+    {
+        LocalDate monday = LocalDate.of(2017, 7, 3);
+        Assertions.assertTrue(this.calendar.addRecurringMeeting(
+                "Standup",
+                monday,
+                monday.plusYears(2L),
+                LocalTime.of(9, 0),
+                Duration.ofMinutes(15),
+                RecurringMeeting.Frequency.DAILY,
+                Sets.mutable.with(LocalDate.of(2017, 7, 4))));
+        Assertions.assertTrue(this.calendar.addRecurringMeeting(
+                "Weekly Sync",
+                monday,
+                monday.plusYears(2L),
+                LocalTime.of(10, 0),
+                Duration.ofHours(1),
+                RecurringMeeting.Frequency.WEEKLY,
+                Sets.mutable.empty()));
+        Assertions.assertFalse(this.calendar.addRecurringMeeting(
+                "Monthly Lunch",
+                monday,
+                monday.plusYears(1L),
+                LocalTime.NOON,
+                Duration.ofHours(1),
+                RecurringMeeting.Frequency.MONTHLY,
+                Sets.mutable.empty()));
+
+        Verify.assertSize(3, this.calendar.getMeetingsForDate(monday));
+        Verify.assertEmpty(this.calendar.getMeetingsForDate(LocalDate.of(2017, 7, 4)));
+        Verify.assertSize(2, this.calendar.getMeetingsForDate(LocalDate.of(2019, 7, 1)));
+        Verify.assertEmpty(this.calendar.getMeetingsForDate(LocalDate.of(2019, 7, 4)));
+        Assertions.assertTrue(this.calendar.hasOverlappingMeeting(
+                LocalDate.of(2018, 1, 10),
+                LocalTime.of(9, 10),
+                Duration.ofMinutes(30)));
+        Assertions.assertFalse(this.calendar.addMeeting(
+                "Clash",
+                LocalDate.of(2018, 1, 8),
+                LocalTime.of(10, 30),
+                Duration.ofMinutes(15)));
+        Assertions.assertTrue(this.calendar.addMeeting(
+                "Coffee",
+                LocalDate.of(2017, 7, 4),
+                LocalTime.of(9, 0),
+                Duration.ofMinutes(15)));
+
+        // 4 lunches, 4 standups, a weekly sync and the coffee in place of the skipped standup
+        Assertions.assertEquals(10, this.calendar.getMeetingsForWorkWeekOf(monday).getNumberOfMeetings());
+    }
+
     @Test
     public void getAvailableTimeslots()
     {
@@ -189,6 +307,251 @@ public class MyCalendarTest
         System.out.println(availableTimeslots2);
     }
 
+    @Test
+    public void getAvailableTimeslotsIntoBuffer()
+    {
+        LocalDate date = LocalDate.of(2017, 7, 6);
+        MutableLongList slots = LongLists.mutable.empty();
+        int count = this.calendar.getAvailableTimeslots(date, Duration.ZERO, slots);
+        MutableList<Interval> availableTimeslots = this.calendar.getAvailableTimeslots(date);
+        Assertions.assertEquals(availableTimeslots.size(), count);
+        Assertions.assertEquals(count * 2, slots.size());
+        for (int i = 0; i < count; i++)
+        {
+            Assertions.assertEquals(availableTimeslots.get(i).getStart().getEpochSecond(), slots.get(i * 2));
+            Assertions.assertEquals(availableTimeslots.get(i).getEnd().getEpochSecond(), slots.get(i * 2 + 1));
+        }
+
+        slots.clear();
+        Duration longest = availableTimeslots.collect(Interval::toDuration).max();
+        Assertions.assertEquals(1, this.calendar.getAvailableTimeslots(date, longest, slots));
+        Assertions.assertEquals(0, this.calendar.getAvailableTimeslots(date, longest.plusSeconds(1L), slots));
+    }
+
+    @Test
+    public void viewFromAnotherZone()
+    {
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        Assertions.assertTrue(this.calendar.addMeeting(
+                "Late call",
+                LocalDate.of(2017, 7, 3),
+                LocalTime.of(20, 0),
+                Duration.ofHours(1)));
+        Assertions.assertTrue(this.calendar.addRecurringMeeting(
+                "Stand up",
+                LocalDate.of(2017, 7, 3),
+                LocalDate.of(2017, 7, 7),
+                LocalTime.of(23, 30),
+                Duration.ofMinutes(15),
+                RecurringMeeting.Frequency.DAILY,
+                Sets.immutable.empty()));
+
+        // 12:00 and 20:00 UTC on the 3rd are 21:00 on the 3rd and 05:00 on the 4th in Tokyo
+        SortedSetIterable<Meeting> monday = this.calendar.getMeetingsForDate(LocalDate.of(2017, 7, 3), tokyo);
+        Assertions.assertEquals(Lists.mutable.with("Lunch"), monday.collect(Meeting::getSubject).toList());
+        SortedSetIterable<Meeting> tuesday = this.calendar.getMeetingsForDate(LocalDate.of(2017, 7, 4), tokyo);
+        Assertions.assertEquals(
+                Lists.mutable.with("Late call", "Stand up"),
+                tuesday.collect(Meeting::getSubject).toList());
+        Assertions.assertEquals(
+                this.calendar.getMeetingsForDate(LocalDate.of(2017, 7, 3)),
+                this.calendar.getMeetingsForDate(LocalDate.of(2017, 7, 3), this.calendar.getZoneId()));
+
+        // The Stand up on Friday in UTC is on Saturday in Tokyo
+        LocalDate weekOf = LocalDate.of(2017, 7, 3);
+        Assertions.assertEquals(10, this.calendar.getMeetingsForWorkWeekOf(weekOf).getNumberOfMeetings());
+        Assertions.assertEquals(9, this.calendar.getMeetingsForWorkWeekOf(weekOf, tokyo).getNumberOfMeetings());
+        Assertions.assertEquals(
+                12,
+                this.calendar.getMeetingsForFullWeekOf(LocalDate.of(2017, 7, 8), tokyo).getNumberOfMeetings());
+        Assertions.assertEquals(
+                12,
+                this.calendar.getMeetingsForYearMonth(2017, Month.JULY, tokyo).getNumberOfMeetings());
+
+        // Busy from 05:00 to 06:00 and 08:30 to 08:45 on the 4th in Tokyo
+        MutableList<Interval> slots = this.calendar.getAvailableTimeslots(LocalDate.of(2017, 7, 4), tokyo);
+        Assertions.assertEquals(3, slots.size());
+        Assertions.assertEquals(
+                LocalDate.of(2017, 7, 4).atStartOfDay(tokyo).toInstant(),
+                slots.getFirst().getStart());
+        Assertions.assertTrue(slots.noneSatisfy(this::overlapsMeeting));
+
+        // The day the clocks go forward in New York is 23 hours long
+        ZoneId newYork = ZoneId.of("America/New_York");
+        Assertions.assertEquals(
+                Lists.mutable.with(Duration.ofHours(23)),
+                this.calendar.getAvailableTimeslots(LocalDate.of(2017, 3, 12), newYork).collect(Interval::toDuration));
+    }
+
+    @Test
+    public void availableTimeslotsAfterMeetingPastMidnight()
+    {
+        LocalDate sunday = LocalDate.of(2017, 8, 13);
+        LocalDate monday = sunday.plusDays(1L);
+        LocalDate tuesday = monday.plusDays(1L);
+        Assertions.assertTrue(
+                this.calendar.addMeeting("Night shift", sunday, LocalTime.of(23, 0), Duration.ofHours(2)));
+
+        // The Night shift runs until 01:00 on Monday, whether Monday is seen from the calendar zone or not
+        Assertions.assertEquals(
+                Lists.mutable.with(Interval.of(
+                        monday.atTime(1, 0).toInstant(ZoneOffset.UTC),
+                        tuesday.atStartOfDay().toInstant(ZoneOffset.UTC))),
+                this.calendar.getAvailableTimeslots(monday));
+        Assertions.assertEquals(
+                this.calendar.getAvailableTimeslots(monday),
+                this.calendar.getAvailableTimeslots(monday, ZoneOffset.UTC));
+
+        Assertions.assertTrue(this.calendar.addRecurringMeeting(
+                "Late check",
+                monday,
+                LocalDate.of(2017, 8, 20),
+                LocalTime.of(23, 30),
+                Duration.ofHours(1),
+                RecurringMeeting.Frequency.DAILY,
+                Sets.immutable.empty()));
+        Assertions.assertEquals(
+                Lists.mutable.with(Interval.of(
+                        tuesday.atTime(0, 30).toInstant(ZoneOffset.UTC),
+                        tuesday.atTime(23, 30).toInstant(ZoneOffset.UTC))),
+                this.calendar.getAvailableTimeslots(tuesday));
+        Assertions.assertEquals(
+                this.calendar.getAvailableTimeslots(tuesday),
+                this.calendar.getAvailableTimeslots(tuesday, ZoneOffset.UTC));
+        Assertions.assertEquals(
+                this.calendar.getAvailableTimeslots(monday),
+                this.calendar.getAvailableTimeslots(monday, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void availableTimeslotsDuringLongMeetings()
+    {
+        LocalDate firstOfAugust = LocalDate.of(2017, 8, 1);
+        Assertions.assertTrue(
+                this.calendar.addMeeting("Leave", firstOfAugust, LocalTime.MIDNIGHT, Duration.ofDays(30L)));
+        Assertions.assertTrue(this.calendar.addRecurringMeeting(
+                "Offsite",
+                LocalDate.of(2017, 9, 4),
+                LocalDate.of(2017, 9, 30),
+                LocalTime.NOON,
+                Duration.ofHours(50L),
+                RecurringMeeting.Frequency.WEEKLY,
+                Sets.immutable.empty()));
+
+        // The Leave is filed under each day it covers, so any day of it is busy however long ago it started
+        for (LocalDate date = firstOfAugust; date.isBefore(LocalDate.of(2017, 8, 31)); date = date.plusDays(1L))
+        {
+            Verify.assertEmpty(this.calendar.getAvailableTimeslots(date));
+            Verify.assertEmpty(this.calendar.getAvailableTimeslots(date, ZoneOffset.UTC));
+        }
+        LocalDate thirtyFirst = LocalDate.of(2017, 8, 31);
+        Assertions.assertEquals(
+                Lists.mutable.with(Duration.ofDays(1L)),
+                this.calendar.getAvailableTimeslots(thirtyFirst).collect(Interval::toDuration));
+
+        // The Offsite from noon on Monday runs until 14:00 on Wednesday
+        LocalDate wednesday = LocalDate.of(2017, 9, 6);
+        Assertions.assertEquals(
+                Lists.mutable.with(Interval.of(
+                        wednesday.atTime(14, 0).toInstant(ZoneOffset.UTC),
+                        wednesday.plusDays(1L).atStartOfDay().toInstant(ZoneOffset.UTC))),
+                this.calendar.getAvailableTimeslots(wednesday));
+        Assertions.assertEquals(
+                this.calendar.getAvailableTimeslots(wednesday),
+                this.calendar.getAvailableTimeslots(wednesday, ZoneOffset.UTC));
+        Verify.assertEmpty(this.calendar.getAvailableTimeslots(wednesday.minusDays(1L)));
+    }
+
+    @Test
+    public void findFreeSlot()
+    {
+        LocalDate monday = LocalDate.of(2017, 7, 3);
+        WorkWeek workWeek = this.calendar.getMeetingsForWorkWeekOf(monday);
+        Predicate<LocalDate> notTuesday = date -> date.getDayOfWeek() != DayOfWeek.TUESDAY;
+        Assertions.assertEquals(
+                Interval.of(
+                        monday.plusDays(1).atTime(LocalTime.NOON).toInstant(ZoneOffset.UTC),
+                        Duration.ofMinutes(30)),
+                this.calendar.findFreeSlot(workWeek, LocalTime.NOON, LocalTime.of(13, 0), Duration.ofMinutes(30)));
+        Assertions.assertEquals(
+                Interval.of(monday.atTime(13, 0).toInstant(ZoneOffset.UTC), Duration.ofMinutes(30)),
+                this.calendar.findFreeSlot(
+                        workWeek, notTuesday, LocalTime.NOON, LocalTime.of(13, 30), Duration.ofMinutes(30)));
+        Assertions.assertNull(this.calendar.findFreeSlot(
+                workWeek, notTuesday, LocalTime.NOON, LocalTime.of(13, 29), Duration.ofMinutes(30)));
+
+        Assertions.assertTrue(this.calendar.addRecurringMeeting(
+                "Review",
+                monday,
+                LocalDate.of(2017, 7, 31),
+                LocalTime.of(14, 0),
+                Duration.ofHours(1),
+                RecurringMeeting.Frequency.DAILY,
+                Sets.immutable.with(LocalDate.of(2017, 7, 8))));
+        FullMonth july = this.calendar.getMeetingsForYearMonth(2017, Month.JULY);
+        Predicate<LocalDate> workdays = date -> date.getDayOfWeek().getValue() <= DayOfWeek.FRIDAY.getValue();
+        Assertions.assertNull(this.calendar.findFreeSlot(
+                july, workdays, LocalTime.of(13, 0), LocalTime.of(16, 0), Duration.ofHours(2)));
+        Assertions.assertEquals(
+                Interval.of(LocalDate.of(2017, 7, 1).atTime(13, 0).toInstant(ZoneOffset.UTC), Duration.ofHours(2)),
+                this.calendar.findFreeSlot(july, LocalTime.of(13, 0), LocalTime.of(18, 0), Duration.ofHours(2)));
+
+        // A meeting that takes part of a 15 minute slot takes the whole slot
+        MyCalendar quarterHours = new MyCalendar(TimeZone.getTimeZone("UTC"), Duration.ofMinutes(15));
+        quarterHours.addMeeting("Call", monday, LocalTime.of(9, 5), Duration.ofMinutes(5));
+        Assertions.assertEquals(
+                Interval.of(monday.atTime(9, 15).toInstant(ZoneOffset.UTC), Duration.ofMinutes(10)),
+                quarterHours.findFreeSlot(
+                        quarterHours.getMeetingsForWorkWeekOf(monday),
+                        LocalTime.of(9, 0),
+                        LocalTime.of(10, 0),
+                        Duration.ofMinutes(10)));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new MyCalendar(TimeZone.getDefault(), Duration.ZERO));
+    }
+
+    @Test
+    public void renderAndExport()
+    {
+        this.calendar.addMeeting(
+                "Tab\tand\\slash",
+                LocalDate.of(2017, 7, 4),
+                LocalTime.of(9, 0),
+                Duration.ofMinutes(15));
+        FullMonth july = this.calendar.getMeetingsForYearMonth(2017, Month.JULY);
+        StringBuilder expected = new StringBuilder();
+        july.range.stream().forEach(date ->
+                expected.append("Date=" + date + " {Meetings= " + this.calendar.getMeetingsForDate(date) + "} "));
+        StringWriter rendered = new StringWriter();
+        july.renderTo(rendered);
+        Assertions.assertEquals(expected.toString(), rendered.toString());
+        Assertions.assertTrue(july.toString().contains(expected));
+
+        StringBuilder exported = new StringBuilder();
+        july.exportTo(exported);
+        String[] lines = exported.toString().split("\n");
+        Assertions.assertEquals(july.getNumberOfMeetings(), lines.length);
+        Assertions.assertEquals("2017-07-02\t13:00\t7200\tSoccer Match", lines[0]);
+        Assertions.assertEquals("2017-07-04\t09:00\t900\tTab\\tand\\\\slash", lines[2]);
+    }
+
+    @Test
+    public void exportFromAnotherZone()
+    {
+        MyCalendar newYorkCalendar = new MyCalendar(TimeZone.getTimeZone("America/New_York"));
+        newYorkCalendar.addMeeting("Late call", LocalDate.of(2017, 7, 3), LocalTime.of(20, 0), Duration.ofHours(1));
+
+        // 20:00 on Monday in New York is 09:00 on Tuesday in Tokyo
+        StringBuilder exported = new StringBuilder();
+        newYorkCalendar.getMeetingsForWorkWeekOf(LocalDate.of(2017, 7, 3), ZoneId.of("Asia/Tokyo")).exportTo(exported);
+        Assertions.assertEquals("2017-07-04\t09:00\t3600\tLate call\n", exported.toString());
+
+        exported.setLength(0);
+        newYorkCalendar.getMeetingsForWorkWeekOf(LocalDate.of(2017, 7, 3)).exportTo(exported);
+        Assertions.assertEquals("2017-07-03\t20:00\t3600\tLate call\n", exported.toString());
+    }
+
     private boolean overlapsMeeting(Interval interval)
     {
         LocalDate date = LocalDate.ofInstant(interval.getStart(), this.calendar.getZoneId());
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.calendarkata;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.threeten.extra.Interval;
+
+/**
+ * Compares {@link MyCalendar#hasOverlappingMeeting(LocalDate, LocalTime, Duration)}, which binary searches the
+ * {@link MeetingIndex} for the date, against creating an Interval for every meeting on the date and testing
+ * each one for an overlap.  The day is filled with one minute bookings like a shared room calendar, and the
+ * time slot checked is free, so the Interval scan has to look at every meeting.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+public class OverlapJMHBenchmark
+{
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 8);
+
+    @Param({"10", "100", "500"})
+    private int meetingsPerDay;
+
+    private MyCalendar calendar;
+    private LocalTime freeTime;
+
+    public static void main(String[] args) throws RunnerException
+    {
+        var options = new OptionsBuilder().include(".*" + OverlapJMHBenchmark.class.getSimpleName() + ".*")
+                .forks(2)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(2L))
+                .measurementIterations(10)
+                .measurementTime(TimeValue.seconds(2L))
+                .timeout(TimeValue.seconds(20))
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp()
+    {
+        this.calendar = new MyCalendar(TimeZone.getTimeZone("America/New_York"));
+        int spacing = 24 * 60 / this.meetingsPerDay;
+        for (int i = 0; i < this.meetingsPerDay; i++)
+        {
+            LocalTime startTime = LocalTime.MIN.plusMinutes((long) i * spacing);
+            this.calendar.addMeeting("Booking " + i, DATE, startTime, Duration.ofMinutes(1));
+        }
+        this.freeTime = LocalTime.MIN.plusMinutes((long) (this.meetingsPerDay / 2) * spacing + 1);
+    }
+
+    @Benchmark
+    public boolean meetingIndex()
+    {
+        return this.calendar.hasOverlappingMeeting(DATE, this.freeTime, Duration.ofMinutes(1));
+    }
+
+    @Benchmark
+    public boolean intervalScan()
+    {
+        Interval timeSlot = Interval.of(
+                DATE.atTime(this.freeTime).atZone(this.calendar.getZoneId()).toInstant(),
+                Duration.ofMinutes(1));
+        return this.calendar.getMeetingsForDate(DATE)
+                .collect(Meeting::getInterval)
+                .anySatisfyWith(Interval::overlaps, timeSlot);
+    }
+}
@@ -16,7 +16,6 @@
 
 package bny.codekatas.deckofcards;
 
-import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -25,8 +24,61 @@ import org.eclipse.collections.api.LazyIterable;
 import org.eclipse.collections.api.block.function.Function2;
 import org.eclipse.collections.impl.factory.Sets;
 
+/**
+ * There are only 52 distinct Cards, so one canonical instance of each is kept in a table indexed by
+ * {@code suit.ordinal() * 13 + rank.ordinal()}.  {@link #of(Rank, Suit)}, {@link #fromIndex(int)} and
+ * {@link Rank#of(Suit)} all return the canonical instances, so decks share them, and hashing, equality and
+ * comparison work on the index.  The index also fits in a byte, for a compact encoding of a Card.
+ */
 public record Card(Rank rank, Suit suit) implements Comparable<Card>
 {
+    private static final int RANK_COUNT = Rank.values().length;
+    private static final Card[] CARDS = Card.createCards();
+
+    private static Card[] createCards()
+    {
+        Rank[] ranks = Rank.values();
+        Suit[] suits = Suit.values();
+        Card[] cards = new Card[ranks.length * suits.length];
+        for (Suit suit : suits)
+        {
+            for (Rank rank : ranks)
+            {
+                cards[suit.ordinal() * ranks.length + rank.ordinal()] = new Card(rank, suit);
+            }
+        }
+        return cards;
+    }
+
+    public static Card of(Rank rank, Suit suit)
+    {
+        return CARDS[suit.ordinal() * RANK_COUNT + rank.ordinal()];
+    }
+
+    public static Card fromIndex(int index)
+    {
+        if (index < 0 || index >= CARDS.length)
+        {
+            throw new IllegalArgumentException("No card with index " + index);
+        }
+        return CARDS[index];
+    }
+
+    public static Card fromByte(byte value)
+    {
+        return Card.fromIndex(value);
+    }
+
+    public int index()
+    {
+        return this.suit.ordinal() * RANK_COUNT + this.rank.ordinal();
+    }
+
+    public byte toByte()
+    {
+        return (byte) this.index();
+    }
+
     /**
      * {@link LazyIterable} and {@link Sets#cartesianProduct(Set, Set, Function2)} are from Eclipse Collections
      */
@@ -47,10 +99,25 @@ public record Card(Rank rank, Suit suit) implements Comparable<Card>
                         .map(suit -> rank.of(suit)));
     }
 
+    /**
+     * Cards are ordered by Suit and then by Rank, which is the order of their indexes.
+     */
     @Override
     public int compareTo(Card other)
     {
-        return Comparator.comparing(Card::suit).thenComparing(Card::rank).compare(this, other);
+        return Integer.compare(this.index(), other.index());
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return this == other || other instanceof Card card && this.index() == card.index();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.index();
     }
 
     @Override
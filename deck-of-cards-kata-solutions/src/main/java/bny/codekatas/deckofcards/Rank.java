@@ -47,6 +47,6 @@ public enum Rank
 
     public Card of(Suit suit)
     {
-        return new Card(this, suit);
+        return Card.of(this, suit);
     }
 }
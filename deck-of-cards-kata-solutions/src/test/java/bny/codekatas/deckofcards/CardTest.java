@@ -83,4 +83,25 @@ public class CardTest
         Assertions.assertEquals("|A♦|", Rank.ACE.of(Suit.DIAMONDS).toString());
         Assertions.assertEquals("|A♣|", Rank.ACE.of(Suit.CLUBS).toString());
     }
+
+    @Test
+    public void canonicalCards()
+    {
+        Assertions.assertSame(Card.of(Rank.ACE, Suit.SPADES), Rank.ACE.of(Suit.SPADES));
+        Assertions.assertSame(Card.of(Rank.KING, Suit.CLUBS), Card.fromIndex(51));
+        Assertions.assertEquals(new Card(Rank.QUEEN, Suit.HEARTS), Card.of(Rank.QUEEN, Suit.HEARTS));
+        Assertions.assertEquals(
+                new Card(Rank.QUEEN, Suit.HEARTS).hashCode(),
+                Card.of(Rank.QUEEN, Suit.HEARTS).hashCode());
+        MutableSet<Card> cards = Card.lazyCards().toSet();
+        cards.forEach(card ->
+        {
+            Assertions.assertSame(card, Card.fromIndex(card.index()));
+            Assertions.assertSame(card, Card.fromByte(card.toByte()));
+            Assertions.assertEquals(card.suit().ordinal() * 13 + card.rank().ordinal(), card.index());
+        });
+        Assertions.assertEquals(52, cards.collectInt(Card::index).toSet().size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Card.fromIndex(52));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Card.fromByte((byte) -1));
+    }
 }
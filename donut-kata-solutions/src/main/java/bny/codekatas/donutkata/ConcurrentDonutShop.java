@@ -0,0 +1,213 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.time.LocalDate;
+import java.util.DoubleSummaryStatistics;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.eclipse.collections.api.bag.Bag;
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.map.ConcurrentMutableMap;
+import org.eclipse.collections.api.multimap.Multimap;
+import org.eclipse.collections.api.tuple.primitive.ObjectIntPair;
+import org.eclipse.collections.impl.factory.Bags;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.Multimaps;
+import org.eclipse.collections.impl.map.mutable.ConcurrentHashMap;
+import org.eclipse.collections.impl.utility.LazyIterate;
+
+/**
+ * A ConcurrentDonutShop behaves like a {@link DonutShop} but {@link #makeDonuts(DonutType, int)} and
+ * {@link #deliverOrder(String, LocalDate, String)} may be called from many threads at once.  The inventory
+ * is an AtomicIntegerArray with each DonutType on its own cache line, so orders for different types never
+ * contend and orders for the same type take or bake donuts with a single lock-free update.  Customers are
+ * kept in a ConcurrentHashMap and Orders and Deliveries are appended to lock-free queues.
+ */
+public class ConcurrentDonutShop
+{
+    /**
+     * Number of ints between two DonutType counts, so each count sits on its own 64 byte cache line.
+     */
+    private static final int STRIPE = 16;
+
+    /**
+     * Offset within a stripe of the number of donuts of the type made so far, which shares the cache line of
+     * the inventory count it is updated with.
+     */
+    private static final int MADE = 1;
+
+    private final AtomicIntegerArray donuts = new AtomicIntegerArray(DonutType.count() * STRIPE);
+    private final Queue<Order> orders = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMutableMap<String, Customer> customers = ConcurrentHashMap.newMap();
+    private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+    private final PricingEngine pricingEngine;
+
+    public ConcurrentDonutShop()
+    {
+        this(TieredPricing.DEFAULT);
+    }
+
+    public ConcurrentDonutShop(PricingEngine pricingEngine)
+    {
+        this.pricingEngine = pricingEngine;
+    }
+
+    public void makeDonuts(DonutType type, int count)
+    {
+        this.donuts.addAndGet(type.ordinal() * STRIPE + MADE, count);
+        this.donuts.addAndGet(type.ordinal() * STRIPE, count);
+    }
+
+    /**
+     * Takes count donuts of the specified type from the inventory.  Any donuts that are missing are made
+     * and handed out immediately, which leaves the inventory for the type at zero.
+     */
+    private void takeDonuts(DonutType type, int count)
+    {
+        int inventory = this.donuts.getAndUpdate(type.ordinal() * STRIPE, each -> Math.max(each - count, 0));
+        if (inventory < count)
+        {
+            this.donuts.addAndGet(type.ordinal() * STRIPE + MADE, count - Math.max(inventory, 0));
+        }
+    }
+
+    /**
+     * Parses and prices the order before the Customer or the Order is added, so an order that cannot be
+     * satisfied leaves the ConcurrentDonutShop unchanged.
+     */
+    public Delivery deliverOrder(String customerName, LocalDate date, String donutTypeCounts)
+    {
+        var customer = this.customers.get(customerName);
+        var order = new Order(customer == null ? newCustomer(customerName) : customer, date, donutTypeCounts);
+        double price = this.pricingEngine.pricePerDonut(order.customer(), order.counts().size());
+        if (customer == null)
+        {
+            var existing = this.customers.putIfAbsent(customerName, order.customer());
+            if (existing != null)
+            {
+                // Another thread added the Customer while this order was being priced
+                order = new Order(existing, date, order.counts());
+            }
+        }
+        this.orders.add(order);
+        return this.fillOrder(order, price);
+    }
+
+    private Delivery fillOrder(Order order, double price)
+    {
+        order.counts().forEachWithOccurrences(this::takeDonuts);
+        return this.createDelivery(order, price);
+    }
+
+    private Delivery createDelivery(Order order, double price)
+    {
+        var delivery = new Delivery(order, price);
+        this.deliveries.add(delivery);
+        return delivery;
+    }
+
+    /**
+     * Deliveries for the same Customer may be made on different threads, so each Customer gets a
+     * synchronized list of Deliveries.
+     */
+    private static Customer newCustomer(String customerName)
+    {
+        return new Customer(customerName, Lists.mutable.<Delivery>empty().asSynchronized());
+    }
+
+    public Bag<DonutType> getDonuts()
+    {
+        return this.toBag(0);
+    }
+
+    /**
+     * Returns every donut made so far, whether by {@link #makeDonuts(DonutType, int)} or to fill an order
+     * the inventory fell short of.  Once all orders have been delivered, this equals the donuts in
+     * {@link #getDonuts()} plus the donuts in every Delivery.
+     */
+    public Bag<DonutType> getDonutsMade()
+    {
+        return this.toBag(MADE);
+    }
+
+    private Bag<DonutType> toBag(int offset)
+    {
+        MutableBag<DonutType> bag = Bags.mutable.empty();
+        for (int i = 0; i < DonutType.count(); i++)
+        {
+            bag.addOccurrences(DonutType.forOrdinal(i), this.donuts.get(i * STRIPE + offset));
+        }
+        return bag.toImmutable();
+    }
+
+    public int getOrderCount()
+    {
+        return this.orders.size();
+    }
+
+    public Customer getCustomer(String customerName)
+    {
+        return this.customers.get(customerName);
+    }
+
+    public MutableList<ObjectIntPair<DonutType>> getTopDonuts(int n)
+    {
+        return LazyIterate.adapt(this.deliveries)
+                .flatCollect(Delivery::donuts)
+                .countBy(Donut::type, Bags.mutable.empty())
+                .topOccurrences(n);
+    }
+
+    public double getTotalDeliveryValueFor(LocalDate date)
+    {
+        return LazyIterate.adapt(this.deliveries)
+                .selectWith(Delivery::deliveredOn, date)
+                .sumOfDouble(Delivery::getTotalPrice);
+    }
+
+    public Customer getTopCustomer()
+    {
+        return this.customers.maxBy(Customer::getTotalDonutsOrdered);
+    }
+
+    public Multimap<DonutType, Customer> getCustomersByDonutTypesOrdered()
+    {
+        return this.customers.groupByEach(Customer::getDonutTypesOrdered, Multimaps.mutable.set.empty());
+    }
+
+    public DoubleSummaryStatistics getDonutPriceStatistics(LocalDate fromDate, LocalDate toDate)
+    {
+        return LazyIterate.adapt(this.deliveries)
+                .select(each -> (each.deliveredOn(fromDate) || each.getDate().isAfter(fromDate)))
+                .select(each -> (each.deliveredOn(toDate) || each.getDate().isBefore(toDate)))
+                .flatCollect(Delivery::donuts)
+                .summarizeDouble(Donut::price);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentDonutShop(" +
+                "donuts=" + this.getDonuts().toStringOfItemToCount() +
+                ", deliveries=" + this.deliveries +
+                ')';
+    }
+}
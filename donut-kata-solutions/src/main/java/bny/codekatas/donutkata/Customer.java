@@ -18,24 +18,93 @@ package bny.codekatas.donutkata;
 
 import org.eclipse.collections.api.list.ListIterable;
 import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.set.MutableSet;
 import org.eclipse.collections.api.set.SetIterable;
 import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.Sets;
 
-public record Customer(String name, MutableList<Delivery> deliveries)
+/**
+ * A Customer keeps a running total of the donuts ordered and a bitmask of the DonutTypes ordered, indexed by
+ * {@link DonutType#ordinal()}.  Both are updated as each Delivery is added, so reading them never has to
+ * look at past Deliveries.
+ */
+public class Customer
 {
+    private final String name;
+    private final MutableList<Delivery> deliveries;
+    private final boolean keepsDeliveries;
+    private volatile long totalDonutsOrdered;
+    private volatile int donutTypesOrdered;
+
     public Customer(String name)
     {
         this(name, Lists.mutable.empty());
     }
 
+    /**
+     * Creates a Customer with the Deliveries already in the list, which are counted in the running totals.
+     */
+    public Customer(String name, MutableList<Delivery> deliveries)
+    {
+        this(name, deliveries, true);
+    }
+
+    private Customer(String name, MutableList<Delivery> deliveries, boolean keepsDeliveries)
+    {
+        this.name = name;
+        this.deliveries = deliveries;
+        this.keepsDeliveries = keepsDeliveries;
+        deliveries.forEach(this::countDelivery);
+    }
+
+    /**
+     * Creates a Customer that only keeps the running totals and not the Deliveries themselves.  Used by a
+     * DonutShop that keeps its Delivery history in a DeliveryColumnStore.
+     */
+    static Customer withoutDeliveries(String name)
+    {
+        return new Customer(name, Lists.mutable.empty(), false);
+    }
+
+    /**
+     * Creates a Customer without Deliveries whose running totals are restored from a snapshot.
+     */
+    static Customer restore(String name, long totalDonutsOrdered, int donutTypesOrdered)
+    {
+        var customer = Customer.withoutDeliveries(name);
+        customer.totalDonutsOrdered = totalDonutsOrdered;
+        customer.donutTypesOrdered = donutTypesOrdered;
+        return customer;
+    }
+
+    public String name()
+    {
+        return this.name;
+    }
+
+    public MutableList<Delivery> deliveries()
+    {
+        return this.deliveries;
+    }
+
     public boolean named(String name)
     {
         return name.equals(this.name);
     }
 
-    public void addDelivery(Delivery delivery)
+    public synchronized void addDelivery(Delivery delivery)
     {
-        this.deliveries.add(delivery);
+        if (this.keepsDeliveries)
+        {
+            this.deliveries.add(delivery);
+        }
+        this.countDelivery(delivery);
+    }
+
+    private void countDelivery(Delivery delivery)
+    {
+        this.totalDonutsOrdered += delivery.getTotalDonuts();
+        delivery.forEachDonutTypeCount((type, count) -> this.donutTypesOrdered |= 1 << type.ordinal());
     }
 
     public ListIterable<Delivery> getDeliveries()
@@ -45,15 +114,55 @@ public record Customer(String name, MutableList<Delivery> deliveries)
 
     public long getTotalDonutsOrdered()
     {
-        return this.deliveries.sumOfInt(Delivery::getTotalDonuts);
+        return this.totalDonutsOrdered;
+    }
+
+    /**
+     * Returns the bitmask of the DonutTypes ordered, indexed by {@link DonutType#ordinal()}.
+     */
+    int getDonutTypesOrderedMask()
+    {
+        return this.donutTypesOrdered;
+    }
+
+    public boolean hasOrdered(DonutType type)
+    {
+        return (this.donutTypesOrdered & (1 << type.ordinal())) != 0;
     }
 
     public SetIterable<DonutType> getDonutTypesOrdered()
     {
-        return this.deliveries
-                .flatCollect(Delivery::donuts)
-                .collect(Donut::type)
-                .toSet();
+        int typesOrdered = this.donutTypesOrdered;
+        MutableSet<DonutType> types = Sets.mutable.empty();
+        for (int i = 0; i < DonutType.count(); i++)
+        {
+            if ((typesOrdered & (1 << i)) != 0)
+            {
+                types.add(DonutType.forOrdinal(i));
+            }
+        }
+        return types;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass())
+        {
+            return false;
+        }
+        Customer customer = (Customer) o;
+        return this.name.equals(customer.name);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.name.hashCode();
     }
 
     @Override
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import org.eclipse.collections.api.map.ImmutableMap;
+import org.eclipse.collections.api.map.MutableMap;
+
+/**
+ * CustomerPricing prices orders with a Customer's own TieredPricing when they have one, and with the default
+ * TieredPricing otherwise.  The tiers for every Customer are loaded up front and never change, so lookups
+ * need no locking.
+ */
+public final class CustomerPricing implements PricingEngine
+{
+    private final TieredPricing defaultPricing;
+    private final ImmutableMap<String, TieredPricing> pricingByCustomerName;
+
+    public CustomerPricing(TieredPricing defaultPricing, MutableMap<String, TieredPricing> pricingByCustomerName)
+    {
+        this.defaultPricing = defaultPricing;
+        this.pricingByCustomerName = pricingByCustomerName.toImmutable();
+    }
+
+    @Override
+    public double pricePerDonut(Customer customer, int orderSize)
+    {
+        return this.pricingByCustomerName
+                .getIfAbsentValue(customer.name(), this.defaultPricing)
+                .pricePerDonut(orderSize);
+    }
+}
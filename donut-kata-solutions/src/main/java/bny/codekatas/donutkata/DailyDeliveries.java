@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.time.LocalDate;
+import java.util.DoubleSummaryStatistics;
+
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+
+/**
+ * DailyDeliveries holds the Deliveries made on a single date together with the donut price statistics
+ * and the count of each DonutType delivered on that date.  The statistics and counts are aggregated as
+ * Deliveries are added, so reading the total value for a date or combining the statistics for a range of
+ * dates never has to look at individual donuts.
+ */
+public class DailyDeliveries
+{
+    private final LocalDate date;
+    private final MutableList<Delivery> deliveries = Lists.mutable.empty();
+    private final boolean keepsDeliveries;
+    private final DoubleSummaryStatistics priceStatistics = new DoubleSummaryStatistics();
+    private final EnumInventory donutsDelivered = new EnumInventory();
+
+    public DailyDeliveries(LocalDate date)
+    {
+        this(date, true);
+    }
+
+    private DailyDeliveries(LocalDate date, boolean keepsDeliveries)
+    {
+        this.date = date;
+        this.keepsDeliveries = keepsDeliveries;
+    }
+
+    /**
+     * Creates DailyDeliveries that only keep the aggregates and not the Deliveries themselves.  Used by a
+     * DonutShop that keeps its Delivery history in a DeliveryColumnStore.
+     */
+    static DailyDeliveries withoutDeliveries(LocalDate date)
+    {
+        return new DailyDeliveries(date, false);
+    }
+
+    /**
+     * Creates DailyDeliveries without Deliveries whose aggregates are restored from a snapshot.
+     */
+    static DailyDeliveries restore(
+            LocalDate date,
+            DoubleSummaryStatistics priceStatistics,
+            EnumInventory donutsDelivered)
+    {
+        var daily = DailyDeliveries.withoutDeliveries(date);
+        daily.priceStatistics.combine(priceStatistics);
+        daily.donutsDelivered.addAll(donutsDelivered);
+        return daily;
+    }
+
+    void add(Delivery delivery)
+    {
+        if (this.keepsDeliveries)
+        {
+            this.deliveries.add(delivery);
+        }
+        this.priceStatistics.combine(new DoubleSummaryStatistics(
+                delivery.getTotalDonuts(),
+                delivery.pricePerDonut(),
+                delivery.pricePerDonut(),
+                delivery.getTotalPrice()));
+        delivery.forEachDonutTypeCount(this.donutsDelivered::add);
+    }
+
+    public LocalDate getDate()
+    {
+        return this.date;
+    }
+
+    public ListIterable<Delivery> getDeliveries()
+    {
+        return this.deliveries.asUnmodifiable();
+    }
+
+    public double getTotalValue()
+    {
+        return this.priceStatistics.getSum();
+    }
+
+    public void addDonutsDeliveredTo(EnumInventory inventory)
+    {
+        inventory.addAll(this.donutsDelivered);
+    }
+
+    public void combinePriceStatisticsInto(DoubleSummaryStatistics statistics)
+    {
+        statistics.combine(this.priceStatistics);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DailyDeliveries(" +
+                "date=" + this.date +
+                ", deliveries=" + (this.keepsDeliveries ? this.deliveries.size() : "not kept") +
+                ", totalValue=" + this.getTotalValue() +
+                ')';
+    }
+}
@@ -17,16 +17,65 @@
 package bny.codekatas.donutkata;
 
 import java.time.LocalDate;
+import java.util.Collections;
 
-import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.LazyIterable;
+import org.eclipse.collections.api.bag.Bag;
+import org.eclipse.collections.api.block.procedure.primitive.ObjectIntProcedure;
+import org.eclipse.collections.api.list.primitive.ImmutableIntList;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.list.Interval;
 
-public record Delivery(Order order, ImmutableList<Donut>donuts)
+/**
+ * A Delivery stores the number of donuts delivered of each DonutType, indexed by {@link DonutType#ordinal()},
+ * and the single price paid per donut.  Individual Donuts are only created when {@link #donuts()} is iterated,
+ * and then only one per DonutType.
+ * <p>
+ * Only {@link #Delivery(Order, double)} adds the Delivery to its Customer.  The canonical constructor is used
+ * to rebuild a Delivery that has already been counted, such as one read back from a DeliveryColumnStore.
+ */
+public record Delivery(Order order, ImmutableIntList donutCounts, double pricePerDonut)
 {
-    public Delivery
+    public Delivery(Order order, double pricePerDonut)
     {
+        this(order, Delivery.countsByOrdinal(order.counts()), pricePerDonut);
         order.customer().addDelivery(this);
     }
 
+    private static ImmutableIntList countsByOrdinal(Bag<DonutType> counts)
+    {
+        int[] countsByOrdinal = new int[DonutType.count()];
+        counts.forEachWithOccurrences((type, count) -> countsByOrdinal[type.ordinal()] = count);
+        return IntLists.immutable.with(countsByOrdinal);
+    }
+
+    public LazyIterable<Donut> donuts()
+    {
+        return Interval.zeroTo(DonutType.count() - 1)
+                .asLazy()
+                .reject(ordinal -> this.donutCounts.get(ordinal) == 0)
+                .flatCollect(ordinal -> Collections.nCopies(
+                        this.donutCounts.get(ordinal),
+                        new Donut(DonutType.forOrdinal(ordinal), this.pricePerDonut)));
+    }
+
+    public void forEachDonutTypeCount(ObjectIntProcedure<DonutType> procedure)
+    {
+        for (int i = 0; i < this.donutCounts.size(); i++)
+        {
+            int count = this.donutCounts.get(i);
+            if (count > 0)
+            {
+                procedure.value(DonutType.forOrdinal(i), count);
+            }
+        }
+    }
+
+    public int getCount(DonutType type)
+    {
+        return this.donutCounts.get(type.ordinal());
+    }
+
     public Customer getCustomer()
     {
         return this.order.customer();
@@ -44,12 +93,12 @@ public record Delivery(Order order, ImmutableList<Donut>donuts)
 
     public int getTotalDonuts()
     {
-        return this.donuts.size();
+        return (int) this.donutCounts.sum();
     }
 
     public double getTotalPrice()
     {
-        return this.donuts.sumOfDouble(Donut::price);
+        return this.getTotalDonuts() * this.pricePerDonut;
     }
 
     @Override
@@ -57,7 +106,7 @@ public record Delivery(Order order, ImmutableList<Donut>donuts)
     {
         return "Delivery(" +
                 "order=" + this.order +
-                ", donuts=" + this.donuts.toBag().toStringOfItemToCount() +
+                ", donuts=" + this.donuts().toBag().toStringOfItemToCount() +
                 ')';
     }
 }
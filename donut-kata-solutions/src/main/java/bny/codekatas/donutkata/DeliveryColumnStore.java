@@ -0,0 +1,356 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.function.Function;
+
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.api.multimap.set.MutableSetMultimap;
+import org.eclipse.collections.impl.factory.Bags;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.Multimaps;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+
+/**
+ * A DeliveryColumnStore keeps a history of Deliveries outside the Java heap, one column per field, each column
+ * in its own direct ByteBuffer: the epoch day, a customer id, the price per donut and a count for each
+ * DonutType.  A row takes 16 bytes plus 4 bytes per DonutType no matter how many donuts were delivered, and
+ * the garbage collector never has to trace any of it.  Only the customer names are kept on the heap, once
+ * per Customer.
+ * <p>
+ * Reports scan the columns they need from start to end, so a DonutShop only uses the store for access to
+ * individual Deliveries and answers its reports by date from aggregates.  Columns grow by doubling and are not
+ * thread safe.
+ * Each column is a single ByteBuffer, so a store holds at most {@link #MAX_CAPACITY} Deliveries, the most
+ * that fit in the widest column.  A DonutShop created with a DeliveryColumnStore uses it in place of the
+ * Deliveries it would otherwise keep on the heap.
+ */
+public class DeliveryColumnStore
+{
+    public static final int MAX_CAPACITY = Integer.MAX_VALUE / Double.BYTES;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final MutableObjectIntMap<String> customerIds = ObjectIntMaps.mutable.empty();
+    private final MutableList<String> customerNames = Lists.mutable.empty();
+    private ByteBuffer epochDays;
+    private ByteBuffer customers;
+    private ByteBuffer prices;
+    private final ByteBuffer[] donutCounts = new ByteBuffer[DonutType.count()];
+    private int capacity;
+    private int size;
+
+    public DeliveryColumnStore()
+    {
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    public void add(Delivery delivery)
+    {
+        if (this.size == this.capacity)
+        {
+            if (this.capacity == MAX_CAPACITY)
+            {
+                throw new IllegalStateException("DeliveryColumnStore is full at " + this.size + " deliveries");
+            }
+            this.allocate((int) Math.min(this.capacity * 2L, MAX_CAPACITY));
+        }
+        int row = this.size;
+        this.epochDays.putInt(row * Integer.BYTES, Math.toIntExact(delivery.getDate().toEpochDay()));
+        this.customers.putInt(row * Integer.BYTES, this.customerId(delivery.getCustomer().name()));
+        this.prices.putDouble(row * Double.BYTES, delivery.pricePerDonut());
+        for (int i = 0; i < this.donutCounts.length; i++)
+        {
+            this.donutCounts[i].putInt(row * Integer.BYTES, delivery.donutCounts().get(i));
+        }
+        this.size++;
+    }
+
+    private int customerId(String customerName)
+    {
+        return this.customerIds.getIfAbsentPut(customerName, () ->
+        {
+            this.customerNames.add(customerName);
+            return this.customerNames.size() - 1;
+        });
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns the customer names in the order of their customer ids.
+     */
+    ListIterable<String> getCustomerNames()
+    {
+        return this.customerNames.asUnmodifiable();
+    }
+
+    /**
+     * Gives the customer name the next customer id.  Used when restoring a snapshot, before
+     * {@link #readColumnsFrom(ByteBuffer, int)}, so the ids in the restored columns refer to the same names.
+     */
+    void addCustomerName(String customerName)
+    {
+        this.customerId(customerName);
+    }
+
+    /**
+     * Writes the filled part of each column to the channel, one column after another, so a snapshot copies
+     * the store in bulk instead of row by row.
+     */
+    void writeColumnsTo(WritableByteChannel channel) throws IOException
+    {
+        for (ByteBuffer column : this.columns())
+        {
+            ByteBuffer rows = column.slice(0, this.size * (column.capacity() / this.capacity));
+            while (rows.hasRemaining())
+            {
+                channel.write(rows);
+            }
+        }
+    }
+
+    /**
+     * Reads rows rows of each column, in the order written by {@link #writeColumnsTo(WritableByteChannel)},
+     * into this empty store with one bulk copy per column.
+     */
+    void readColumnsFrom(ByteBuffer in, int rows)
+    {
+        if (this.size != 0)
+        {
+            throw new IllegalStateException("Columns can only be read into an empty DeliveryColumnStore");
+        }
+        if (rows < 0 || rows > MAX_CAPACITY)
+        {
+            throw new IllegalStateException("Cannot read " + rows + " rows into a DeliveryColumnStore");
+        }
+        if (rows > this.capacity)
+        {
+            this.allocate(rows);
+        }
+        for (ByteBuffer column : this.columns())
+        {
+            int bytes = rows * (column.capacity() / this.capacity);
+            column.put(0, in, in.position(), bytes);
+            in.position(in.position() + bytes);
+        }
+        this.size = rows;
+    }
+
+    private ByteBuffer[] columns()
+    {
+        ByteBuffer[] columns = new ByteBuffer[3 + this.donutCounts.length];
+        columns[0] = this.epochDays;
+        columns[1] = this.customers;
+        columns[2] = this.prices;
+        System.arraycopy(this.donutCounts, 0, columns, 3, this.donutCounts.length);
+        return columns;
+    }
+
+    private int totalDonuts(int row)
+    {
+        int total = 0;
+        for (ByteBuffer column : this.donutCounts)
+        {
+            total += column.getInt(row * Integer.BYTES);
+        }
+        return total;
+    }
+
+    /**
+     * Rebuilds a Delivery for each row, in the order they were added, with the Customer that customerNamed
+     * returns for the name stored in the row.  The Deliveries are not kept, and rebuilding them does not add
+     * them to the Customers again.
+     */
+    public ListIterable<Delivery> getDeliveries(Function<String, Customer> customerNamed)
+    {
+        Customer[] resolvedCustomers = new Customer[this.customerNames.size()];
+        MutableList<Delivery> result = Lists.mutable.withInitialCapacity(this.size);
+        for (int row = 0; row < this.size; row++)
+        {
+            int customer = this.customers.getInt(row * Integer.BYTES);
+            if (resolvedCustomers[customer] == null)
+            {
+                resolvedCustomers[customer] = customerNamed.apply(this.customerNames.get(customer));
+            }
+            int[] counts = new int[this.donutCounts.length];
+            MutableBag<DonutType> bag = Bags.mutable.empty();
+            for (int i = 0; i < counts.length; i++)
+            {
+                counts[i] = this.donutCounts[i].getInt(row * Integer.BYTES);
+                bag.addOccurrences(DonutType.forOrdinal(i), counts[i]);
+            }
+            var date = LocalDate.ofEpochDay(this.epochDays.getInt(row * Integer.BYTES));
+            result.add(new Delivery(
+                    new Order(resolvedCustomers[customer], date, bag),
+                    IntLists.immutable.with(counts),
+                    this.prices.getDouble(row * Double.BYTES)));
+        }
+        return result;
+    }
+
+    public double getTotalDeliveryValueFor(LocalDate date)
+    {
+        int epochDay = Math.toIntExact(date.toEpochDay());
+        double total = 0.0d;
+        for (int row = 0; row < this.size; row++)
+        {
+            if (this.epochDays.getInt(row * Integer.BYTES) == epochDay)
+            {
+                total += this.totalDonuts(row) * this.prices.getDouble(row * Double.BYTES);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the statistics of the price paid for each donut delivered between fromDate and toDate inclusive,
+     * the same as {@link DonutShop#getDonutPriceStatistics(LocalDate, LocalDate)}.
+     */
+    public DoubleSummaryStatistics getDonutPriceStatistics(LocalDate fromDate, LocalDate toDate)
+    {
+        long from = fromDate.toEpochDay();
+        long to = toDate.toEpochDay();
+        var statistics = new DoubleSummaryStatistics();
+        for (int row = 0; row < this.size; row++)
+        {
+            int epochDay = this.epochDays.getInt(row * Integer.BYTES);
+            if (epochDay >= from && epochDay <= to)
+            {
+                int totalDonuts = this.totalDonuts(row);
+                double price = this.prices.getDouble(row * Double.BYTES);
+                statistics.combine(new DoubleSummaryStatistics(totalDonuts, price, price, totalDonuts * price));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Adds the count of each DonutType delivered between fromDate and toDate inclusive to the inventory.
+     */
+    public void addDonutsDeliveredTo(EnumInventory inventory, LocalDate fromDate, LocalDate toDate)
+    {
+        long from = fromDate.toEpochDay();
+        long to = toDate.toEpochDay();
+        for (int row = 0; row < this.size; row++)
+        {
+            int epochDay = this.epochDays.getInt(row * Integer.BYTES);
+            if (epochDay >= from && epochDay <= to)
+            {
+                for (int i = 0; i < this.donutCounts.length; i++)
+                {
+                    inventory.add(DonutType.forOrdinal(i), this.donutCounts[i].getInt(row * Integer.BYTES));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the customers who have ordered each DonutType.  Each DonutType column is scanned
+     * on its own, and a customer is only added the first time they are seen ordering that type.
+     */
+    public MutableSetMultimap<DonutType, String> getCustomersByDonutTypesOrdered()
+    {
+        MutableSetMultimap<DonutType, String> result = Multimaps.mutable.set.empty();
+        boolean[] seen = new boolean[this.customerNames.size()];
+        for (int i = 0; i < this.donutCounts.length; i++)
+        {
+            DonutType type = DonutType.forOrdinal(i);
+            ByteBuffer column = this.donutCounts[i];
+            Arrays.fill(seen, false);
+            for (int row = 0; row < this.size; row++)
+            {
+                if (column.getInt(row * Integer.BYTES) > 0)
+                {
+                    int customer = this.customers.getInt(row * Integer.BYTES);
+                    if (!seen[customer])
+                    {
+                        seen[customer] = true;
+                        result.put(type, this.customerNames.get(customer));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void allocate(int newCapacity)
+    {
+        int intColumnBytes = DeliveryColumnStore.columnBytes(newCapacity, Integer.BYTES);
+        int doubleColumnBytes = DeliveryColumnStore.columnBytes(newCapacity, Double.BYTES);
+        this.epochDays = DeliveryColumnStore.grow(this.epochDays, intColumnBytes);
+        this.customers = DeliveryColumnStore.grow(this.customers, intColumnBytes);
+        this.prices = DeliveryColumnStore.grow(this.prices, doubleColumnBytes);
+        for (int i = 0; i < this.donutCounts.length; i++)
+        {
+            this.donutCounts[i] = DeliveryColumnStore.grow(this.donutCounts[i], intColumnBytes);
+        }
+        this.capacity = newCapacity;
+    }
+
+    /**
+     * Returns the size in bytes of a column of rows values of the specified width, checking that it fits in a
+     * single ByteBuffer before anything is allocated.
+     */
+    static int columnBytes(long rows, int width)
+    {
+        long bytes = rows * width;
+        if (rows < 0 || bytes > Integer.MAX_VALUE)
+        {
+            throw new IllegalStateException("A column of " + rows + " rows of " + width + " bytes is too large");
+        }
+        return (int) bytes;
+    }
+
+    private int rowBytes()
+    {
+        return Integer.BYTES + Integer.BYTES + Double.BYTES + Integer.BYTES * this.donutCounts.length;
+    }
+
+    private static ByteBuffer grow(ByteBuffer column, int bytes)
+    {
+        ByteBuffer grown = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        if (column != null)
+        {
+            grown.put(0, column, 0, column.capacity());
+        }
+        return grown;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DeliveryColumnStore(" +
+                "deliveries=" + this.size +
+                ", customers=" + this.customerNames.size() +
+                ", offHeapBytes=" + (long) this.capacity * this.rowBytes() +
+                ')';
+    }
+}
@@ -17,153 +17,361 @@
 package bny.codekatas.donutkata;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.DoubleSummaryStatistics;
+import java.util.concurrent.ExecutorService;
 
+import org.eclipse.collections.api.RichIterable;
 import org.eclipse.collections.api.bag.Bag;
 import org.eclipse.collections.api.bag.MutableBag;
-import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.ListIterable;
 import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.MutableDoubleList;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.api.map.sorted.MutableSortedMap;
 import org.eclipse.collections.api.multimap.Multimap;
-import org.eclipse.collections.api.set.MutableSet;
-import org.eclipse.collections.api.tuple.primitive.ObjectDoublePair;
+import org.eclipse.collections.api.multimap.set.MutableSetMultimap;
+import org.eclipse.collections.api.set.sorted.MutableSortedSet;
 import org.eclipse.collections.api.tuple.primitive.ObjectIntPair;
-import org.eclipse.collections.impl.factory.Bags;
 import org.eclipse.collections.impl.factory.Lists;
-import org.eclipse.collections.impl.factory.Sets;
-import org.eclipse.collections.impl.list.primitive.IntInterval;
-import org.eclipse.collections.impl.tuple.primitive.PrimitiveTuples;
+import org.eclipse.collections.impl.factory.Maps;
+import org.eclipse.collections.impl.factory.Multimaps;
+import org.eclipse.collections.impl.factory.SortedMaps;
+import org.eclipse.collections.impl.factory.SortedSets;
+import org.eclipse.collections.impl.factory.primitive.DoubleLists;
+import org.eclipse.collections.impl.multimap.set.SynchronizedPutUnifiedSetMultimap;
+import org.eclipse.collections.impl.parallel.ParallelIterate;
 
 /**
- * A DonutShop has a Bag of DonutTypes, a Set of Customers, a List of Orders, and a List of Deliveries.
- * Prices for donuts are determined by how many donuts are ordered.  Deliveries are always made the same
- * day as an Order.  If there are not enough donuts to fill an order, more donuts are made.
+ * A DonutShop has an EnumInventory of DonutTypes, a Map of Customers by name, a List of Orders, and a List of
+ * Deliveries.  Prices for donuts are determined by a PricingEngine, by default from how many donuts are
+ * ordered.  Deliveries are always made the same day as an Order.  If there are not enough donuts to fill an
+ * order, more donuts are made.  Deliveries are also indexed by date, so reports for a date or a range of
+ * dates only look at the matching days, and running counts of the donuts delivered are kept by DonutType.
+ * Customers are ranked by the total number of donuts they have ordered.
+ * <p>
+ * A DonutShop created with a DeliveryColumnStore writes each Delivery to the store instead, and neither the
+ * DonutShop, its DailyDeliveries nor its Customers keep the Order or the Delivery.  Reports by date are still
+ * answered from the aggregates of each day, and {@link #getDeliveries()} rebuilds the Deliveries from the
+ * store, with this DonutShop's Customers, each time it is called.
  */
 public class DonutShop
 {
-    private static final int SINGLE = 1;
-    private static final int DOUBLE = 2;
-    private static final int HALF_DOZEN = 6;
-    private static final int DOZEN = 12;
-    private static final int BAKERS_DOZEN = 13;
-    private static final ImmutableList<ObjectDoublePair<IntInterval>> PRICES =
-            Lists.immutable.with(
-                    PrimitiveTuples.pair(IntInterval.zeroTo(SINGLE), 1.50d),
-                    PrimitiveTuples.pair(IntInterval.fromTo(DOUBLE, HALF_DOZEN - 1), 1.35d),
-                    PrimitiveTuples.pair(IntInterval.fromTo(HALF_DOZEN, DOZEN - 1), 1.25d),
-                    PrimitiveTuples.pair(IntInterval.fromTo(DOZEN, DOZEN), 1.00d),
-                    PrimitiveTuples.pair(IntInterval.fromTo(BAKERS_DOZEN, DOZEN * 100), 0.95d));
-
-    private MutableBag<DonutType> donuts = Bags.mutable.empty();
+    private static final Comparator<Customer> BY_TOTAL_DONUTS_ORDERED =
+            Comparator.comparingLong(Customer::getTotalDonutsOrdered).reversed().thenComparing(Customer::name);
+
+    private EnumInventory donuts = new EnumInventory();
     private MutableList<Order> orders = Lists.mutable.empty();
-    private MutableSet<Customer> customers = Sets.mutable.empty();
+    private MutableMap<String, Customer> customers = Maps.mutable.empty();
     private MutableList<Delivery> deliveries = Lists.mutable.empty();
+    private MutableSortedMap<LocalDate, DailyDeliveries> deliveriesByDate = SortedMaps.mutable.empty();
+    private EnumInventory donutsDelivered = new EnumInventory();
+    private MutableSortedSet<Customer> customersByTotalDonutsOrdered = SortedSets.mutable.of(BY_TOTAL_DONUTS_ORDERED);
+    private final PricingEngine pricingEngine;
+    private final DeliveryColumnStore deliveryStore;
+
+    public DonutShop()
+    {
+        this(TieredPricing.DEFAULT);
+    }
+
+    public DonutShop(PricingEngine pricingEngine)
+    {
+        this(pricingEngine, null);
+    }
+
+    public DonutShop(PricingEngine pricingEngine, DeliveryColumnStore deliveryStore)
+    {
+        this.pricingEngine = pricingEngine;
+        this.deliveryStore = deliveryStore;
+    }
 
     public void makeDonuts(DonutType type, int count)
     {
-        this.donuts.addOccurrences(type, count);
+        this.donuts.add(type, count);
     }
 
+    /**
+     * Makes the donuts an order is short of straight into the inventory rather than through
+     * {@link #makeDonuts(DonutType, int)}, so a subclass only sees the donuts made on request.
+     */
     private void makeMissingDonuts(DonutType type, int count)
     {
         int inventory = this.donuts.occurrencesOf(type);
         if (inventory < count)
         {
             int missing = count - inventory;
-            this.makeDonuts(type, missing);
+            this.donuts.add(type, missing);
         }
     }
 
+    /**
+     * Parses and prices the order before any Customer is added or any donuts are made, so an order that cannot
+     * be satisfied leaves the DonutShop unchanged.
+     */
     public Delivery deliverOrder(String customerName, LocalDate date, String donutTypeCounts)
     {
-        var customer = this.getOrCreateCustomer(customerName);
-        var order = this.createOrder(customer, date, donutTypeCounts);
-        return this.fillOrder(order);
+        var customer = this.customers.get(customerName);
+        var order = new Order(customer == null ? this.newCustomer(customerName) : customer, date, donutTypeCounts);
+        double price = this.calculatePricePerDonut(order);
+        if (customer == null)
+        {
+            this.addCustomer(order.customer());
+        }
+        this.addOrder(order);
+        return this.fillOrder(order, price);
+    }
+
+    /**
+     * Delivers an order at a price per donut that was agreed when the order was first delivered, without
+     * pricing it again.  Used when replaying a journal, so the replayed Delivery matches the original even if
+     * the pricing has changed since.
+     */
+    Delivery restoreDelivery(String customerName, LocalDate date, MutableBag<DonutType> counts, double price)
+    {
+        var order = new Order(this.getOrCreateCustomer(customerName), date, counts);
+        this.addOrder(order);
+        return this.fillOrder(order, price);
+    }
+
+    /**
+     * Delivers a batch of orders with the same Deliveries and final inventory as calling
+     * {@link #deliverOrder(String, LocalDate, String)} for each request in turn.  The demand for each DonutType
+     * is added up across the batch so any missing donuts are made once, before the orders are filled in order.
+     * Every order is parsed and priced before any Customer is added or any donuts are made, so if one order
+     * cannot be satisfied the batch leaves the DonutShop unchanged.
+     */
+    public MutableList<Delivery> deliverOrders(Iterable<OrderRequest> requests)
+    {
+        MutableList<Order> batch = Lists.mutable.empty();
+        MutableDoubleList prices = DoubleLists.mutable.empty();
+        MutableMap<String, Customer> newCustomers = Maps.mutable.empty();
+        var demand = new EnumInventory();
+        for (OrderRequest request : requests)
+        {
+            String name = request.customerName();
+            var customer = this.customers.get(name);
+            if (customer == null)
+            {
+                customer = newCustomers.getIfAbsentPutWith(name, this::newCustomer, name);
+            }
+            var order = new Order(customer, request.date(), request.donutTypeCounts());
+            prices.add(this.calculatePricePerDonut(order));
+            order.counts().forEachWithOccurrences(demand::add);
+            batch.add(order);
+        }
+        newCustomers.forEachValue(this::addCustomer);
+        batch.forEach(this::addOrder);
+        demand.forEachWithOccurrences(this::makeMissingDonuts);
+        return batch.collectWithIndex((order, index) -> this.deliver(order, prices.get(index)));
     }
 
-    private Delivery fillOrder(Order order)
+    private void addOrder(Order order)
+    {
+        if (this.deliveryStore == null)
+        {
+            this.orders.add(order);
+        }
+    }
+
+    private Delivery fillOrder(Order order, double price)
     {
         order.counts().forEachWithOccurrences(this::makeMissingDonuts);
-        double price = this.calculatePricePerDonut(order.counts().size());
-        var delivery = this.createDelivery(order, price);
-        order.counts().forEachWithOccurrences(this.donuts::removeOccurrences);
-        return delivery;
+        return this.deliver(order, price);
     }
 
-    private Delivery createDelivery(Order order, double price)
+    private Delivery deliver(Order order, double price)
     {
-        var donutList = order.counts()
-                .asLazy()
-                .collect(type -> new Donut(type, price))
-                .toImmutableList();
-        var delivery = new Delivery(order, donutList);
-        this.deliveries.add(delivery);
+        var delivery = this.createDelivery(order, price);
+        order.counts().forEachWithOccurrences(this.donuts::remove);
         return delivery;
     }
 
-    private double calculatePricePerDonut(int orderSize)
+    private Delivery createDelivery(Order order, double price)
     {
-        return PRICES.detectIfNone(
-                pair -> pair.getOne().contains(orderSize),
-                () -> { throw new IllegalArgumentException("This order cannot be satisfied");})
-                .getTwo();
+        // The Customer's total changes with the Delivery, so it is re-inserted to keep the ranking sorted
+        this.customersByTotalDonutsOrdered.remove(order.customer());
+        var delivery = new Delivery(order, price);
+        this.customersByTotalDonutsOrdered.add(order.customer());
+        if (this.deliveryStore == null)
+        {
+            this.deliveries.add(delivery);
+        }
+        else
+        {
+            this.deliveryStore.add(delivery);
+        }
+        this.deliveriesByDate
+                .getIfAbsentPutWith(order.date(), this::newDailyDeliveries, order.date())
+                .add(delivery);
+        delivery.forEachDonutTypeCount(this.donutsDelivered::add);
+        return delivery;
     }
 
-    private Order createOrder(Customer customer, LocalDate date, String donutTypeCounts)
+    private double calculatePricePerDonut(Order order)
     {
-        var order = new Order(customer, date, donutTypeCounts);
-        this.orders.add(order);
-        return order;
+        return this.pricingEngine.pricePerDonut(order.customer(), order.counts().size());
     }
 
     private Customer getOrCreateCustomer(String customerName)
     {
-        var customer = this.customers.detectWithIfNone(
-                Customer::named, customerName,
-                () -> new Customer(customerName));
-        if (!this.customers.contains(customer))
+        var customer = this.customers.get(customerName);
+        if (customer == null)
         {
-            this.customers.add(customer);
+            customer = this.newCustomer(customerName);
+            this.addCustomer(customer);
         }
         return customer;
     }
 
+    private Customer newCustomer(String customerName)
+    {
+        return this.deliveryStore == null ? new Customer(customerName) : Customer.withoutDeliveries(customerName);
+    }
+
+    private DailyDeliveries newDailyDeliveries(LocalDate date)
+    {
+        return this.deliveryStore == null ? new DailyDeliveries(date) : DailyDeliveries.withoutDeliveries(date);
+    }
+
+    private void addCustomer(Customer customer)
+    {
+        this.customers.put(customer.name(), customer);
+        this.customersByTotalDonutsOrdered.add(customer);
+    }
+
+    /**
+     * Replaces the inventory count for the specified DonutType.  Used when restoring a DonutShop from a
+     * snapshot, where the inventory is recorded directly rather than rebuilt from every donut made.
+     */
+    void restoreDonuts(DonutType type, int count)
+    {
+        this.donuts.remove(type, Integer.MAX_VALUE);
+        this.donuts.add(type, count);
+    }
+
+    /**
+     * Adds a Customer whose running totals were restored from a snapshot.
+     */
+    void restoreCustomer(Customer customer)
+    {
+        this.addCustomer(customer);
+    }
+
+    /**
+     * Adds the aggregates of a day restored from a snapshot, which also count towards the donuts delivered.
+     */
+    void restoreDailyDeliveries(DailyDeliveries daily)
+    {
+        this.deliveriesByDate.put(daily.getDate(), daily);
+        daily.addDonutsDeliveredTo(this.donutsDelivered);
+    }
+
+    RichIterable<Customer> getCustomers()
+    {
+        return this.customers.valuesView();
+    }
+
+    RichIterable<DailyDeliveries> getDailyDeliveries()
+    {
+        return this.deliveriesByDate.valuesView();
+    }
+
+    DeliveryColumnStore getDeliveryStore()
+    {
+        return this.deliveryStore;
+    }
+
+    /**
+     * Returns an immutable snapshot of the inventory, which is copied on each call and does not change as
+     * donuts are made or delivered.  Use {@link #getDonutCount(DonutType)} to read a single count.
+     */
     public Bag<DonutType> getDonuts()
     {
-        return this.donuts.asUnmodifiable();
+        return this.donuts.toImmutableBag();
+    }
+
+    public int getDonutCount(DonutType type)
+    {
+        return this.donuts.occurrencesOf(type);
+    }
+
+    public ListIterable<Delivery> getDeliveries()
+    {
+        return this.deliveryStore == null
+                ? this.deliveries.asUnmodifiable()
+                : this.deliveryStore.getDeliveries(this.customers::get);
     }
 
     public MutableList<ObjectIntPair<DonutType>> getTopDonuts(int n)
     {
-        return this.deliveries
-                .flatCollect(Delivery::donuts)
-                .countBy(Donut::type)
-                .topOccurrences(n);
+        return this.donutsDelivered.topOccurrences(n);
+    }
+
+    /**
+     * Returns the top n donuts delivered between fromDate and toDate inclusive.  Only the days in the window
+     * are read, so a dashboard can slide the window forward a day at a time without rescanning history.
+     */
+    public MutableList<ObjectIntPair<DonutType>> getTopDonuts(int n, LocalDate fromDate, LocalDate toDate)
+    {
+        var window = new EnumInventory();
+        if (!fromDate.isAfter(toDate))
+        {
+            this.deliveriesByDate
+                    .subMap(fromDate, toDate.plusDays(1))
+                    .forEachValue(daily -> daily.addDonutsDeliveredTo(window));
+        }
+        return window.topOccurrences(n);
     }
 
     public double getTotalDeliveryValueFor(LocalDate date)
     {
-        return this.deliveries
-                .selectWith(Delivery::deliveredOn, date)
-                .sumOfDouble(Delivery::getTotalPrice);
+        var daily = this.deliveriesByDate.get(date);
+        return daily == null ? 0.0d : daily.getTotalValue();
     }
 
     public Customer getTopCustomer()
     {
-        return this.customers.maxBy(Customer::getTotalDonutsOrdered);
+        return this.customersByTotalDonutsOrdered.first();
+    }
+
+    public ListIterable<Customer> getTopCustomers(int k)
+    {
+        return this.customersByTotalDonutsOrdered.asLazy().take(k).toList();
     }
 
     public Multimap<DonutType, Customer> getCustomersByDonutTypesOrdered()
     {
-        return this.customers.groupByEach(Customer::getDonutTypesOrdered);
+        return this.customers.groupByEach(Customer::getDonutTypesOrdered, Multimaps.mutable.set.empty());
     }
 
     public DoubleSummaryStatistics getDonutPriceStatistics(LocalDate fromDate, LocalDate toDate)
     {
-        return this.deliveries
-                .select(each -> (each.deliveredOn(fromDate) || each.getDate().isAfter(fromDate)))
-                .select(each -> (each.deliveredOn(toDate) || each.getDate().isBefore(toDate)))
-                .flatCollect(Delivery::donuts)
-                .summarizeDouble(Donut::price);
+        var statistics = new DoubleSummaryStatistics();
+        if (!fromDate.isAfter(toDate))
+        {
+            this.deliveriesByDate
+                    .subMap(fromDate, toDate.plusDays(1))
+                    .forEachValue(daily -> daily.combinePriceStatisticsInto(statistics));
+        }
+        return statistics;
+    }
+
+    /**
+     * Parallel version of {@link #getCustomersByDonutTypesOrdered()} that reads the Customers in batches of
+     * batchSize straight from the Map on the specified ExecutorService.  The other reports read running counts
+     * or the Deliveries indexed by date, which a parallel scan cannot beat, so they have no parallel versions.
+     * The parallel report must not run while Deliveries are being made.
+     */
+    public Multimap<DonutType, Customer> getCustomersByDonutTypesOrdered(ExecutorService executor, int batchSize)
+    {
+        MutableSetMultimap<DonutType, Customer> result = SynchronizedPutUnifiedSetMultimap.newMultimap();
+        ParallelIterate.forEach(
+                this.customers,
+                customer -> customer.getDonutTypesOrdered().forEach(type -> result.put(type, customer)),
+                batchSize,
+                executor);
+        return result;
     }
 
     @Override
@@ -171,7 +379,7 @@ public class DonutShop
     {
         return "DonutShop(" +
                 "donuts=" + this.donuts.toStringOfItemToCount() +
-                ", deliveries=" + this.deliveries +
+                ", deliveries=" + (this.deliveryStore == null ? this.deliveries : this.deliveryStore) +
                 ')';
     }
 }
@@ -0,0 +1,530 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.DoubleSummaryStatistics;
+import java.util.zip.CRC32C;
+
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.impl.factory.Bags;
+
+/**
+ * A DonutShopJournal is an append-only binary log of the donuts made and the orders delivered by a DonutShop,
+ * written through a MappedByteBuffer, together with a snapshot of the whole shop.  A DonutShop is recovered
+ * by loading the snapshot and then replaying the journal, and the journal is emptied every time a snapshot
+ * is taken, so replay only covers the events since the last snapshot.
+ * <p>
+ * Journal file: int magic, long generation, then records until a zero tag.  Each record is a byte tag, an int
+ * payload length and an int CRC32C of the generation, the tag and the payload, followed by the payload.
+ * <ul>
+ * <li>MAKE_DONUTS: byte DonutType ordinal, int count</li>
+ * <li>DELIVER_ORDER: long epoch day, double price per donut, int name length, UTF-8 name, int count per
+ * DonutType</li>
+ * </ul>
+ * Snapshot file: int magic, long generation, int DonutType count, then
+ * <ul>
+ * <li>int inventory per DonutType</li>
+ * <li>int customer count, then for each Customer an int name length, UTF-8 name, long total donuts ordered
+ * and int bitmask of the DonutTypes ordered</li>
+ * <li>int day count, then for each day a long epoch day, long donut count, double total value, double
+ * minimum and maximum price, and int count delivered per DonutType</li>
+ * <li>int delivery count, int customer name count, each customer name of the DeliveryColumnStore as an int
+ * length and UTF-8 name, then each column of the store in turn</li>
+ * </ul>
+ * The snapshot holds the running totals and daily aggregates rather than the history of Deliveries, so loading
+ * it never rebuilds a Delivery, and the delivery columns are copied in bulk.  Only a DonutShop created with a
+ * DeliveryColumnStore can be snapshotted and recovered.  Replaying a DELIVER_ORDER record delivers the donuts
+ * at the recorded price, so an order is never parsed or priced again, and a DonutShop can be recovered
+ * whatever PricingEngine it uses.
+ * <p>
+ * A record is written behind the zero tag that ends the journal, followed by a new zero tag, and its own tag
+ * is written last, so a record is never reachable before it is complete.  The mapped pages may still reach
+ * the file in any order if the process or machine stops, so a record is only replayed if its checksum
+ * matches.  A torn record, and anything after it, is dropped on recovery.  The generation in the checksum
+ * keeps a complete record left over from an earlier generation from being replayed.
+ * <p>
+ * A snapshot has the generation of the journal that follows it, so a journal left over from before a snapshot
+ * (if the process stopped between writing the snapshot and emptying the journal) is skipped on recovery.
+ * Appended records reach the file when the operating system writes back the mapped pages, or when
+ * {@link #force()} is called.
+ */
+public class DonutShopJournal implements AutoCloseable
+{
+    private static final int MAGIC = 0x444F4E33;
+    private static final byte END = 0;
+    private static final byte MAKE_DONUTS = 1;
+    private static final byte DELIVER_ORDER = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = 1 + Integer.BYTES + Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int SNAPSHOT_BUFFER_SIZE = 1 << 16;
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final FileChannel channel;
+    private final CRC32C checksum = new CRC32C();
+    private MappedByteBuffer buffer;
+    private long generation;
+
+    public DonutShopJournal(Path directory)
+    {
+        this.journalPath = directory.resolve("donutshop.journal");
+        this.snapshotPath = directory.resolve("donutshop.snapshot");
+        try
+        {
+            Files.createDirectories(directory);
+            this.channel = FileChannel.open(
+                    this.journalPath,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.buffer = this.channel.map(
+                    FileChannel.MapMode.READ_WRITE,
+                    0L,
+                    Math.max(this.channel.size(), INITIAL_CAPACITY));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        if (this.buffer.getInt(0) == MAGIC)
+        {
+            this.generation = this.buffer.getLong(Integer.BYTES);
+        }
+        else
+        {
+            this.reset(0L);
+        }
+    }
+
+    /**
+     * Loads the snapshot, if there is one, into the specified empty DonutShop and then replays the journal.
+     * The journal is left positioned after its last complete record, ready for appends.
+     */
+    public void recover(DonutShop donutShop)
+    {
+        DonutShopJournal.requireDeliveryStore(donutShop);
+        long snapshotGeneration = this.loadSnapshot(donutShop);
+        this.buffer.position(HEADER_SIZE);
+        if (this.generation < snapshotGeneration)
+        {
+            this.reset(snapshotGeneration);
+            return;
+        }
+        ByteBuffer payload;
+        while ((payload = this.nextRecord()) != null)
+        {
+            byte tag = this.buffer.get(this.buffer.position());
+            if (tag == MAKE_DONUTS)
+            {
+                donutShop.makeDonuts(DonutType.forOrdinal(payload.get()), payload.getInt());
+            }
+            else if (tag == DELIVER_ORDER)
+            {
+                DonutShopJournal.replayDelivery(payload, donutShop);
+            }
+            else
+            {
+                throw new IllegalStateException("Unknown journal record " + tag + " at " + this.buffer.position());
+            }
+            this.buffer.position(this.buffer.position() + RECORD_HEADER_SIZE + payload.capacity());
+        }
+        // Anything after the last complete record is dropped, so appends continue from here
+        this.buffer.put(this.buffer.position(), END);
+    }
+
+    /**
+     * Returns the payload of the record at the current position, or null at the end of the journal or at a
+     * record that is torn or has a checksum for another generation.
+     */
+    private ByteBuffer nextRecord()
+    {
+        int start = this.buffer.position();
+        if (this.buffer.get(start) == END || this.buffer.capacity() - start <= RECORD_HEADER_SIZE)
+        {
+            return null;
+        }
+        int length = this.buffer.getInt(start + 1);
+        int payloadStart = start + RECORD_HEADER_SIZE;
+        if (length < 0 || length >= this.buffer.capacity() - payloadStart)
+        {
+            return null;
+        }
+        ByteBuffer payload = this.buffer.slice(payloadStart, length);
+        if (this.buffer.getInt(start + 1 + Integer.BYTES) != this.checksumOf(this.buffer.get(start), payload))
+        {
+            return null;
+        }
+        return payload;
+    }
+
+    private int checksumOf(byte tag, ByteBuffer payload)
+    {
+        this.checksum.reset();
+        long generation = this.generation;
+        for (int i = 0; i < Long.BYTES; i++)
+        {
+            this.checksum.update((int) (generation >>> (i * Byte.SIZE)));
+        }
+        this.checksum.update(tag);
+        this.checksum.update(payload.duplicate());
+        return (int) this.checksum.getValue();
+    }
+
+    private long loadSnapshot(DonutShop donutShop)
+    {
+        if (!Files.exists(this.snapshotPath))
+        {
+            return 0L;
+        }
+        try (FileChannel snapshot = FileChannel.open(this.snapshotPath, StandardOpenOption.READ))
+        {
+            ByteBuffer in = snapshot.map(FileChannel.MapMode.READ_ONLY, 0L, snapshot.size());
+            if (in.getInt() != MAGIC)
+            {
+                throw new IllegalStateException("Not a donut shop snapshot: " + this.snapshotPath);
+            }
+            long snapshotGeneration = in.getLong();
+            int typeCount = in.getInt();
+            if (typeCount != DonutType.count())
+            {
+                throw new IllegalStateException("Snapshot has " + typeCount + " DonutTypes: " + this.snapshotPath);
+            }
+            for (int i = 0; i < typeCount; i++)
+            {
+                donutShop.restoreDonuts(DonutType.forOrdinal(i), in.getInt());
+            }
+            int customerCount = in.getInt();
+            for (int i = 0; i < customerCount; i++)
+            {
+                String name = DonutShopJournal.readName(in);
+                donutShop.restoreCustomer(Customer.restore(name, in.getLong(), in.getInt()));
+            }
+            int dayCount = in.getInt();
+            for (int i = 0; i < dayCount; i++)
+            {
+                var date = LocalDate.ofEpochDay(in.getLong());
+                var priceStatistics = new DoubleSummaryStatistics(
+                        in.getLong(),
+                        in.getDouble(),
+                        in.getDouble(),
+                        in.getDouble());
+                var donutsDelivered = new EnumInventory();
+                for (int j = 0; j < typeCount; j++)
+                {
+                    donutsDelivered.add(DonutType.forOrdinal(j), in.getInt());
+                }
+                donutShop.restoreDailyDeliveries(DailyDeliveries.restore(date, priceStatistics, donutsDelivered));
+            }
+            var store = donutShop.getDeliveryStore();
+            int deliveryCount = in.getInt();
+            int customerNameCount = in.getInt();
+            for (int i = 0; i < customerNameCount; i++)
+            {
+                store.addCustomerName(DonutShopJournal.readName(in));
+            }
+            store.readColumnsFrom(in, deliveryCount);
+            return snapshotGeneration;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void appendMakeDonuts(DonutType type, int count)
+    {
+        int start = this.beginRecord(1 + Integer.BYTES);
+        this.buffer.put((byte) type.ordinal()).putInt(count);
+        this.endRecord(start, MAKE_DONUTS);
+    }
+
+    public void appendDelivery(Delivery delivery)
+    {
+        byte[] name = DonutShopJournal.nameOf(delivery);
+        int start = this.beginRecord(DonutShopJournal.deliverySize(name));
+        DonutShopJournal.writeDelivery(this.buffer, delivery, name);
+        this.endRecord(start, DELIVER_ORDER);
+    }
+
+    /**
+     * Makes room for a record with a payload of payloadSize bytes and positions the buffer at its payload.
+     * Returns the position of the record, where the zero tag that ends the journal still is.
+     */
+    private int beginRecord(int payloadSize)
+    {
+        this.ensureCapacity(RECORD_HEADER_SIZE + payloadSize);
+        int start = this.buffer.position();
+        this.buffer.position(start + RECORD_HEADER_SIZE);
+        return start;
+    }
+
+    /**
+     * Writes the new end of the journal, then the length and checksum of the payload, and only then the tag,
+     * which replaces the old end of the journal and makes the record visible to recovery.
+     */
+    private void endRecord(int start, byte tag)
+    {
+        int end = this.buffer.position();
+        this.buffer.put(end, END);
+        ByteBuffer payload = this.buffer.slice(start + RECORD_HEADER_SIZE, end - start - RECORD_HEADER_SIZE);
+        this.buffer.putInt(start + 1, payload.capacity());
+        this.buffer.putInt(start + 1 + Integer.BYTES, this.checksumOf(tag, payload));
+        this.buffer.put(start, tag);
+    }
+
+    /**
+     * Writes the state of the specified DonutShop to a new snapshot and empties the journal.  The snapshot is
+     * written to a temporary file and moved into place, so a partially written snapshot is never read.
+     */
+    public void snapshot(DonutShop donutShop)
+    {
+        var store = DonutShopJournal.requireDeliveryStore(donutShop);
+        long nextGeneration = this.generation + 1L;
+        Path temporary = this.snapshotPath.resolveSibling("donutshop.snapshot.tmp");
+        try (FileChannel snapshot = FileChannel.open(
+                temporary,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE))
+        {
+            // Everything but the delivery columns is written through a fixed size buffer
+            ByteBuffer out = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER_SIZE);
+            out.putInt(MAGIC).putLong(nextGeneration).putInt(DonutType.count());
+            for (int i = 0; i < DonutType.count(); i++)
+            {
+                out.putInt(donutShop.getDonutCount(DonutType.forOrdinal(i)));
+            }
+            var customers = donutShop.getCustomers();
+            out.putInt(customers.size());
+            for (Customer customer : customers)
+            {
+                DonutShopJournal.writeName(snapshot, out, customer.name());
+                DonutShopJournal.reserve(snapshot, out, Long.BYTES + Integer.BYTES);
+                out.putLong(customer.getTotalDonutsOrdered()).putInt(customer.getDonutTypesOrderedMask());
+            }
+            var days = donutShop.getDailyDeliveries();
+            DonutShopJournal.reserve(snapshot, out, Integer.BYTES);
+            out.putInt(days.size());
+            for (DailyDeliveries daily : days)
+            {
+                DonutShopJournal.writeDailyDeliveries(snapshot, out, daily);
+            }
+            var customerNames = store.getCustomerNames();
+            DonutShopJournal.reserve(snapshot, out, Integer.BYTES + Integer.BYTES);
+            out.putInt(store.size()).putInt(customerNames.size());
+            for (String name : customerNames)
+            {
+                DonutShopJournal.writeName(snapshot, out, name);
+            }
+            DonutShopJournal.drain(snapshot, out);
+            store.writeColumnsTo(snapshot);
+            snapshot.force(true);
+            Files.move(
+                    temporary,
+                    this.snapshotPath,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        this.reset(nextGeneration);
+    }
+
+    private static DeliveryColumnStore requireDeliveryStore(DonutShop donutShop)
+    {
+        var store = donutShop.getDeliveryStore();
+        if (store == null)
+        {
+            throw new IllegalArgumentException("A journaled DonutShop needs a DeliveryColumnStore");
+        }
+        return store;
+    }
+
+    private static void writeDailyDeliveries(FileChannel channel, ByteBuffer out, DailyDeliveries daily)
+            throws IOException
+    {
+        var priceStatistics = new DoubleSummaryStatistics();
+        daily.combinePriceStatisticsInto(priceStatistics);
+        var donutsDelivered = new EnumInventory();
+        daily.addDonutsDeliveredTo(donutsDelivered);
+        DonutShopJournal.reserve(
+                channel,
+                out,
+                Long.BYTES + Long.BYTES + Double.BYTES * 3 + Integer.BYTES * DonutType.count());
+        out.putLong(daily.getDate().toEpochDay())
+                .putLong(priceStatistics.getCount())
+                .putDouble(priceStatistics.getMin())
+                .putDouble(priceStatistics.getMax())
+                .putDouble(priceStatistics.getSum());
+        for (int i = 0; i < DonutType.count(); i++)
+        {
+            out.putInt(donutsDelivered.occurrencesOf(DonutType.forOrdinal(i)));
+        }
+    }
+
+    /**
+     * Writes a name and its length to the buffer.  A name too long for the buffer on its own is written
+     * straight to the channel.
+     */
+    private static void writeName(FileChannel channel, ByteBuffer out, String name) throws IOException
+    {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        DonutShopJournal.reserve(channel, out, Integer.BYTES + bytes.length);
+        out.putInt(bytes.length);
+        if (out.remaining() >= bytes.length)
+        {
+            out.put(bytes);
+            return;
+        }
+        DonutShopJournal.drain(channel, out);
+        ByteBuffer nameBuffer = ByteBuffer.wrap(bytes);
+        while (nameBuffer.hasRemaining())
+        {
+            channel.write(nameBuffer);
+        }
+    }
+
+    private static String readName(ByteBuffer in)
+    {
+        byte[] name = new byte[in.getInt()];
+        in.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Drains the buffer to the channel if fewer than size bytes are left in it.
+     */
+    private static void reserve(FileChannel channel, ByteBuffer out, int size) throws IOException
+    {
+        if (out.remaining() < size)
+        {
+            DonutShopJournal.drain(channel, out);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException
+    {
+        out.flip();
+        while (out.hasRemaining())
+        {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    public void force()
+    {
+        this.buffer.force();
+    }
+
+    @Override
+    public void close()
+    {
+        this.force();
+        try
+        {
+            this.channel.close();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void reset(long newGeneration)
+    {
+        this.generation = newGeneration;
+        this.buffer.putInt(0, MAGIC).putLong(Integer.BYTES, newGeneration).put(HEADER_SIZE, END);
+        this.buffer.position(HEADER_SIZE);
+        this.force();
+    }
+
+    /**
+     * Grows the mapping to at least twice its size when the next record and the end tag would not fit.
+     */
+    private void ensureCapacity(int recordSize)
+    {
+        if (this.buffer.remaining() > recordSize)
+        {
+            return;
+        }
+        int position = this.buffer.position();
+        long capacity = Math.max(this.buffer.capacity() * 2L, position + recordSize + 1L);
+        try
+        {
+            this.buffer.force();
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0L, capacity);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        this.buffer.position(position);
+    }
+
+    private static byte[] nameOf(Delivery delivery)
+    {
+        return delivery.getCustomer().name().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int deliverySize(byte[] name)
+    {
+        int fixedSize = Long.BYTES + Double.BYTES + Integer.BYTES + Integer.BYTES * DonutType.count();
+        return Math.addExact(fixedSize, name.length);
+    }
+
+    private static void writeDelivery(ByteBuffer out, Delivery delivery, byte[] name)
+    {
+        out.putLong(delivery.getDate().toEpochDay()).putDouble(delivery.pricePerDonut()).putInt(name.length);
+        out.put(name);
+        for (int i = 0; i < DonutType.count(); i++)
+        {
+            out.putInt(delivery.donutCounts().get(i));
+        }
+    }
+
+    private static void replayDelivery(ByteBuffer in, DonutShop donutShop)
+    {
+        LocalDate date = LocalDate.ofEpochDay(in.getLong());
+        double price = in.getDouble();
+        String name = DonutShopJournal.readName(in);
+        MutableBag<DonutType> counts = Bags.mutable.empty();
+        for (int i = 0; i < DonutType.count(); i++)
+        {
+            int count = in.getInt();
+            if (count > 0)
+            {
+                counts.addOccurrences(DonutType.forOrdinal(i), count);
+            }
+        }
+        donutShop.restoreDelivery(name, date, counts, price);
+    }
+}
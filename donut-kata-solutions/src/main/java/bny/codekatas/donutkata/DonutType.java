@@ -16,8 +16,6 @@
 
 package bny.codekatas.donutkata;
 
-import org.eclipse.collections.impl.utility.ArrayIterate;
-
 public enum DonutType
 {
     BOSTON_CREAM("BC"),
@@ -30,6 +28,28 @@ public enum DonutType
     JELLY("J"),
     BAVARIAN_CREAM("BA");
 
+    private static final DonutType[] VALUES = DonutType.values();
+
+    /**
+     * Abbreviations are one or two upper case letters, so each one maps to its own slot in a small table
+     * indexed by the first letter and the second letter or none.
+     */
+    private static final int LETTERS = 26;
+    private static final DonutType[] BY_ABBREVIATION = new DonutType[LETTERS * (LETTERS + 1)];
+
+    static
+    {
+        for (DonutType type : VALUES)
+        {
+            int slot = abbreviationSlot(type.abbreviation, 0, type.abbreviation.length());
+            if (slot < 0 || BY_ABBREVIATION[slot] != null)
+            {
+                throw new IllegalStateException("Abbreviation cannot be indexed: " + type.abbreviation);
+            }
+            BY_ABBREVIATION[slot] = type;
+        }
+    }
+
     private String abbreviation;
 
     DonutType(String abbreviation)
@@ -37,13 +57,49 @@ public enum DonutType
         this.abbreviation = abbreviation;
     }
 
-    private boolean abbreviationEquals(String abbreviation)
+    public String getAbbreviation()
     {
-        return abbreviation.equals(this.abbreviation);
+        return this.abbreviation;
     }
 
     public static DonutType forAbbreviation(String abbreviation)
     {
-        return ArrayIterate.detectWith(DonutType.values(), DonutType::abbreviationEquals, abbreviation);
+        return DonutType.forAbbreviation(abbreviation, 0, abbreviation.length());
+    }
+
+    /**
+     * Returns the DonutType for the abbreviation between start (inclusive) and end (exclusive) in the
+     * specified CharSequence, or null if there is none.  No String is created for the abbreviation.
+     */
+    public static DonutType forAbbreviation(CharSequence chars, int start, int end)
+    {
+        int slot = abbreviationSlot(chars, start, end);
+        return slot < 0 ? null : BY_ABBREVIATION[slot];
+    }
+
+    private static int abbreviationSlot(CharSequence chars, int start, int end)
+    {
+        int length = end - start;
+        if (length < 1 || length > 2)
+        {
+            return -1;
+        }
+        int first = chars.charAt(start) - 'A';
+        int second = length == 1 ? -1 : chars.charAt(start + 1) - 'A';
+        if (first < 0 || first >= LETTERS || second < (length == 1 ? -1 : 0) || second >= LETTERS)
+        {
+            return -1;
+        }
+        return first * (LETTERS + 1) + second + 1;
+    }
+
+    public static DonutType forOrdinal(int ordinal)
+    {
+        return VALUES[ordinal];
+    }
+
+    public static int count()
+    {
+        return VALUES.length;
     }
 }
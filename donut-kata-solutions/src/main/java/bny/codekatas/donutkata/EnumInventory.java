@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import org.eclipse.collections.api.bag.Bag;
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.api.block.procedure.primitive.ObjectIntProcedure;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.tuple.primitive.ObjectIntPair;
+import org.eclipse.collections.impl.factory.Bags;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.tuple.primitive.PrimitiveTuples;
+
+/**
+ * An EnumInventory keeps a count for each DonutType in a dense int array indexed by
+ * {@link DonutType#ordinal()}.  Adding and removing donuts neither hashes nor allocates.
+ * Removing more donuts than are in stock removes only what is there, just like
+ * {@link MutableBag#removeOccurrences(Object, int)}.
+ */
+public class EnumInventory
+{
+    private final int[] counts = new int[DonutType.count()];
+
+    public void add(DonutType type, int count)
+    {
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("Cannot add a negative count: " + count);
+        }
+        this.counts[type.ordinal()] += count;
+    }
+
+    public boolean remove(DonutType type, int count)
+    {
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("Cannot remove a negative count: " + count);
+        }
+        int index = type.ordinal();
+        int inventory = this.counts[index];
+        if (count == 0 || inventory == 0)
+        {
+            return false;
+        }
+        this.counts[index] = Math.max(inventory - count, 0);
+        return true;
+    }
+
+    public void addAll(EnumInventory inventory)
+    {
+        for (int i = 0; i < this.counts.length; i++)
+        {
+            this.counts[i] += inventory.counts[i];
+        }
+    }
+
+    public int occurrencesOf(DonutType type)
+    {
+        return this.counts[type.ordinal()];
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for (int count : this.counts)
+        {
+            size += count;
+        }
+        return size;
+    }
+
+    public void forEachWithOccurrences(ObjectIntProcedure<DonutType> procedure)
+    {
+        for (int i = 0; i < this.counts.length; i++)
+        {
+            if (this.counts[i] > 0)
+            {
+                procedure.value(DonutType.forOrdinal(i), this.counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the n DonutTypes with the highest counts, including any DonutTypes tied with the nth, with the
+     * same results as {@link Bag#topOccurrences(int)}.
+     */
+    public MutableList<ObjectIntPair<DonutType>> topOccurrences(int n)
+    {
+        if (n < 0)
+        {
+            throw new IllegalArgumentException("Cannot use a value of n < 0");
+        }
+        MutableList<ObjectIntPair<DonutType>> sorted = Lists.mutable.withInitialCapacity(this.counts.length);
+        this.forEachWithOccurrences((type, count) -> sorted.add(PrimitiveTuples.pair(type, count)));
+        sorted.sortThisByInt(pair -> -pair.getTwo());
+        int size = Math.min(n, sorted.size());
+        while (size > 0 && size < sorted.size() && sorted.get(size - 1).getTwo() == sorted.get(size).getTwo())
+        {
+            size++;
+        }
+        return sorted.subList(0, size).toList();
+    }
+
+    /**
+     * Returns an immutable copy of the current counts, which does not change as the inventory does.  Reads
+     * are rare compared to inventory updates, so the Bag is built on demand instead of being kept in sync with
+     * every update.  Use {@link #occurrencesOf(DonutType)} to read a single count without copying.
+     */
+    public Bag<DonutType> toImmutableBag()
+    {
+        MutableBag<DonutType> bag = Bags.mutable.empty();
+        this.forEachWithOccurrences(bag::addOccurrences);
+        return bag.toImmutable();
+    }
+
+    public String toStringOfItemToCount()
+    {
+        return this.toImmutableBag().toStringOfItemToCount();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EnumInventory(" + this.toStringOfItemToCount() + ')';
+    }
+}
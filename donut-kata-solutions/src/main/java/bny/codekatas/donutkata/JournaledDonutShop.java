@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.eclipse.collections.api.list.MutableList;
+
+/**
+ * A JournaledDonutShop is a DonutShop that appends every donut made and every order delivered to a
+ * {@link DonutShopJournal}, so it can be recovered after a restart.  A snapshot is taken every
+ * snapshotInterval events, which keeps the journal that has to be replayed on recovery short.  Each call to
+ * {@link #makeDonuts(DonutType, int)} and each Delivery, including each Delivery in a batch, is one event.
+ * <p>
+ * Deliveries are kept in a {@link DeliveryColumnStore}, so a snapshot can be written and loaded in bulk, and
+ * Customers keep their running totals but not their Deliveries.
+ */
+public class JournaledDonutShop extends DonutShop implements AutoCloseable
+{
+    private final DonutShopJournal journal;
+    private final int snapshotInterval;
+    private boolean recovering;
+    private int eventsSinceSnapshot;
+
+    private JournaledDonutShop(DonutShopJournal journal, int snapshotInterval, PricingEngine pricingEngine)
+    {
+        super(pricingEngine, new DeliveryColumnStore());
+        this.journal = journal;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Opens the journal in the specified directory and recovers the DonutShop recorded there, or starts an
+     * empty DonutShop if there is nothing to recover.
+     */
+    public static JournaledDonutShop open(Path directory, int snapshotInterval)
+    {
+        return JournaledDonutShop.open(directory, snapshotInterval, TieredPricing.DEFAULT);
+    }
+
+    /**
+     * Opens the journal in the specified directory with a DonutShop that prices new orders with the
+     * PricingEngine.  Recovered Deliveries keep the prices they were delivered at.
+     */
+    public static JournaledDonutShop open(Path directory, int snapshotInterval, PricingEngine pricingEngine)
+    {
+        if (snapshotInterval < 1)
+        {
+            throw new IllegalArgumentException("The snapshot interval must be positive: " + snapshotInterval);
+        }
+        var donutShop = new JournaledDonutShop(new DonutShopJournal(directory), snapshotInterval, pricingEngine);
+        donutShop.recovering = true;
+        donutShop.journal.recover(donutShop);
+        donutShop.recovering = false;
+        return donutShop;
+    }
+
+    @Override
+    public void makeDonuts(DonutType type, int count)
+    {
+        super.makeDonuts(type, count);
+        if (!this.recovering)
+        {
+            this.journal.appendMakeDonuts(type, count);
+            this.eventsRecorded(1);
+        }
+    }
+
+    /**
+     * Donuts made to fill the order do not go through {@link #makeDonuts(DonutType, int)}, so they are not
+     * journaled, and replaying the order makes them again.
+     */
+    @Override
+    public Delivery deliverOrder(String customerName, LocalDate date, String donutTypeCounts)
+    {
+        var delivery = super.deliverOrder(customerName, date, donutTypeCounts);
+        this.journal.appendDelivery(delivery);
+        this.eventsRecorded(1);
+        return delivery;
+    }
+
+    /**
+     * The whole batch is journaled before a snapshot is taken, so a snapshot never falls between the
+     * Deliveries of a batch that it already includes.
+     */
+    @Override
+    public MutableList<Delivery> deliverOrders(Iterable<OrderRequest> requests)
+    {
+        var batch = super.deliverOrders(requests);
+        batch.forEach(this.journal::appendDelivery);
+        this.eventsRecorded(batch.size());
+        return batch;
+    }
+
+    public void snapshot()
+    {
+        this.journal.snapshot(this);
+        this.eventsSinceSnapshot = 0;
+    }
+
+    private void eventsRecorded(int count)
+    {
+        this.eventsSinceSnapshot += count;
+        if (this.eventsSinceSnapshot >= this.snapshotInterval)
+        {
+            this.snapshot();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        this.journal.close();
+    }
+}
@@ -19,26 +19,59 @@ package bny.codekatas.donutkata;
 import java.time.LocalDate;
 
 import org.eclipse.collections.api.bag.MutableBag;
-import org.eclipse.collections.api.tuple.primitive.ObjectIntPair;
 import org.eclipse.collections.impl.factory.Bags;
-import org.eclipse.collections.impl.list.fixed.ArrayAdapter;
-import org.eclipse.collections.impl.tuple.primitive.PrimitiveTuples;
 
 public record Order(Customer customer, LocalDate date, MutableBag<DonutType> counts)
 {
     public Order(Customer customer, LocalDate date, String donutTypeCounts)
     {
         this(customer, date, Bags.mutable.empty());
-        ArrayAdapter.adapt(donutTypeCounts.split(","))
-                .asLazy()
-                .collect(pair -> pair.split(":"))
-                .collect(pair -> PrimitiveTuples.pair(DonutType.forAbbreviation(pair[0]), Integer.parseInt(pair[1])))
-                .each(this::add);
+        Order.parseCounts(donutTypeCounts, this.counts);
     }
 
-    private void add(ObjectIntPair<DonutType> pair)
+    /**
+     * Parses donut type counts in the form "BC:2,G:3" into the specified Bag in a single pass over the
+     * characters.  No intermediate Strings or arrays are created.
+     */
+    public static void parseCounts(CharSequence donutTypeCounts, MutableBag<DonutType> counts)
     {
-        this.counts.addOccurrences(pair.getOne(), pair.getTwo());
+        int length = donutTypeCounts.length();
+        if (length == 0)
+        {
+            throw new IllegalArgumentException("Invalid donut type counts: " + donutTypeCounts);
+        }
+        int index = 0;
+        while (index < length)
+        {
+            int colon = index;
+            while (colon < length && donutTypeCounts.charAt(colon) != ':')
+            {
+                colon++;
+            }
+            DonutType type = DonutType.forAbbreviation(donutTypeCounts, index, colon);
+            if (type == null || colon == length)
+            {
+                throw new IllegalArgumentException("Invalid donut type counts: " + donutTypeCounts);
+            }
+            int end = colon + 1;
+            int count = 0;
+            while (end < length && donutTypeCounts.charAt(end) != ',')
+            {
+                int digit = donutTypeCounts.charAt(end) - '0';
+                if (digit < 0 || digit > 9)
+                {
+                    throw new IllegalArgumentException("Invalid donut type counts: " + donutTypeCounts);
+                }
+                count = Math.addExact(Math.multiplyExact(count, 10), digit);
+                end++;
+            }
+            if (end == colon + 1)
+            {
+                throw new IllegalArgumentException("Invalid donut type counts: " + donutTypeCounts);
+            }
+            counts.addOccurrences(type, count);
+            index = end + 1;
+        }
     }
 
     @Override
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.time.LocalDate;
+
+/**
+ * An OrderRequest holds the arguments to {@link DonutShop#deliverOrder(String, LocalDate, String)} so
+ * orders can be delivered in a batch with {@link DonutShop#deliverOrders(Iterable)}.
+ */
+public record OrderRequest(String customerName, LocalDate date, String donutTypeCounts) {}
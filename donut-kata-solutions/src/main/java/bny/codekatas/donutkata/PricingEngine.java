@@ -0,0 +1,30 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+/**
+ * A PricingEngine determines the price per donut a Customer pays for an order of a given size.
+ */
+@FunctionalInterface
+public interface PricingEngine
+{
+    /**
+     * Returns the price per donut for an order of orderSize donuts, or throws an IllegalArgumentException
+     * if the order cannot be satisfied.
+     */
+    double pricePerDonut(Customer customer, int orderSize);
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.util.Arrays;
+
+/**
+ * TieredPricing prices an order by the tier its size falls in.  Each tier starts at a minimum order size and
+ * runs up to the start of the next tier, and the last tier runs up to the maximum order size.  The tier for
+ * an order is found with a binary search over the minimum sizes, so pricing takes O(log tiers) time and
+ * never boxes.
+ * <p>
+ * Tiers can be loaded from a String of minimum size to price pairs, for example
+ * {@code "0:1.50,2:1.35,6:1.25,12:1.00,13:0.95"}.
+ */
+public final class TieredPricing implements PricingEngine
+{
+    private static final int DOZEN = 12;
+
+    public static final TieredPricing DEFAULT =
+            TieredPricing.parse("0:1.50,2:1.35,6:1.25,12:1.00,13:0.95", DOZEN * 100);
+
+    private final int[] minimumSizes;
+    private final double[] prices;
+    private final int maximumOrderSize;
+
+    public TieredPricing(int[] minimumSizes, double[] prices, int maximumOrderSize)
+    {
+        if (minimumSizes.length == 0 || minimumSizes.length != prices.length)
+        {
+            throw new IllegalArgumentException("Each tier needs one minimum size and one price");
+        }
+        if (minimumSizes[0] != 0)
+        {
+            throw new IllegalArgumentException("The first tier must start at 0: " + minimumSizes[0]);
+        }
+        for (int i = 1; i < minimumSizes.length; i++)
+        {
+            if (minimumSizes[i] <= minimumSizes[i - 1])
+            {
+                throw new IllegalArgumentException(
+                        "Tiers must be in ascending order: " + Arrays.toString(minimumSizes));
+            }
+        }
+        if (maximumOrderSize < minimumSizes[minimumSizes.length - 1])
+        {
+            throw new IllegalArgumentException("The maximum order size is below the last tier: " + maximumOrderSize);
+        }
+        this.minimumSizes = minimumSizes.clone();
+        this.prices = prices.clone();
+        this.maximumOrderSize = maximumOrderSize;
+    }
+
+    /**
+     * Parses comma separated minimum size to price pairs, such as {@code "0:1.50,2:1.35"}.
+     */
+    public static TieredPricing parse(String tiers, int maximumOrderSize)
+    {
+        String[] pairs = tiers.split(",");
+        int[] minimumSizes = new int[pairs.length];
+        double[] prices = new double[pairs.length];
+        for (int i = 0; i < pairs.length; i++)
+        {
+            int colon = pairs[i].indexOf(':');
+            if (colon < 0)
+            {
+                throw new IllegalArgumentException("Expected minimumSize:price but was '" + pairs[i] + "'");
+            }
+            minimumSizes[i] = Integer.parseInt(pairs[i].substring(0, colon).trim());
+            prices[i] = Double.parseDouble(pairs[i].substring(colon + 1).trim());
+        }
+        return new TieredPricing(minimumSizes, prices, maximumOrderSize);
+    }
+
+    @Override
+    public double pricePerDonut(Customer customer, int orderSize)
+    {
+        return this.pricePerDonut(orderSize);
+    }
+
+    public double pricePerDonut(int orderSize)
+    {
+        if (orderSize < 0 || orderSize > this.maximumOrderSize)
+        {
+            throw new IllegalArgumentException("This order cannot be satisfied");
+        }
+        int low = 0;
+        int high = this.minimumSizes.length - 1;
+        while (low < high)
+        {
+            int middle = (low + high + 1) >>> 1;
+            if (this.minimumSizes[middle] <= orderSize)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return this.prices[low];
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("TieredPricing(");
+        for (int i = 0; i < this.minimumSizes.length; i++)
+        {
+            builder.append(this.minimumSizes[i]).append(':').append(this.prices[i]).append(", ");
+        }
+        return builder.append("max=").append(this.maximumOrderSize).append(')').toString();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.list.mutable.FastList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Compares delivering a batch of orders one at a time with {@link DonutShop#deliverOrder(String, LocalDate, String)}
+ * against delivering them together with {@link DonutShop#deliverOrders(Iterable)}.  Each invocation starts
+ * from an empty shop so every order has to make missing donuts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+public class BatchOrderJMHBenchmark
+{
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+    private static final String[] COUNTS = {"G:1", "BC:2,G:3", "BC:6,P:2,B:2,OF:2", "J:12", "CG:4,VF:3,BA:1", "G:13"};
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private MutableList<OrderRequest> requests;
+    private DonutShop donutShop;
+
+    public static void main(String[] args) throws RunnerException
+    {
+        var options = new OptionsBuilder().include(".*" + BatchOrderJMHBenchmark.class.getSimpleName() + ".*")
+                .forks(2)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(2L))
+                .measurementIterations(10)
+                .measurementTime(TimeValue.seconds(2L))
+                .timeout(TimeValue.seconds(20))
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUpRequests()
+    {
+        var random = new Random(1L);
+        this.requests = FastList.newWithNValues(
+                this.batchSize,
+                () -> new OrderRequest(
+                        "Customer " + random.nextInt(100),
+                        TODAY,
+                        COUNTS[random.nextInt(COUNTS.length)]));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpDonutShop()
+    {
+        this.donutShop = new DonutShop();
+    }
+
+    @Benchmark
+    public MutableList<Delivery> deliverOrderSequentially()
+    {
+        return this.requests.collect(request -> this.donutShop.deliverOrder(
+                request.customerName(),
+                request.date(),
+                request.donutTypeCounts()));
+    }
+
+    @Benchmark
+    public MutableList<Delivery> deliverOrdersAsBatch()
+    {
+        return this.donutShop.deliverOrders(this.requests);
+    }
+}
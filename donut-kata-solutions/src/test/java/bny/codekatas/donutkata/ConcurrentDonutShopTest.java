@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.impl.factory.Bags;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentDonutShopTest
+{
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    public void rejectedOrderLeavesNoCustomerOrOrder()
+    {
+        var shop = new ConcurrentDonutShop();
+        shop.makeDonuts(DonutType.GLAZED, 10);
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> shop.deliverOrder("Big Spender", TODAY, "G:1201"));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> shop.deliverOrder("Bad Typist", TODAY, "G:"));
+        Assertions.assertNull(shop.getCustomer("Big Spender"));
+        Assertions.assertNull(shop.getCustomer("Bad Typist"));
+        Assertions.assertEquals(0, shop.getOrderCount());
+        Assertions.assertEquals(10, shop.getDonuts().occurrencesOf(DonutType.GLAZED));
+        Assertions.assertEquals(0.0d, shop.getTotalDeliveryValueFor(TODAY), 0.001);
+    }
+
+    @Test
+    public void contendedOrdersConserveDonuts() throws InterruptedException
+    {
+        var shop = new ConcurrentDonutShop();
+        for (DonutType type : DonutType.values())
+        {
+            shop.makeDonuts(type, 5);
+        }
+        int threads = 8;
+        int ordersPerThread = 5_000;
+        int totalOrders = threads * ordersPerThread;
+        int customers = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        for (int thread = 0; thread < threads; thread++)
+        {
+            int id = thread;
+            executor.execute(() -> {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < ordersPerThread; i++)
+                {
+                    // Every thread orders the same scarce types, so most orders run the inventory dry
+                    shop.deliverOrder("Customer " + ((id + i) % customers), TODAY, "BC:2,G:1");
+                    if (i % 3 == 0)
+                    {
+                        shop.makeDonuts(DonutType.BOSTON_CREAM, 1);
+                    }
+                    if (i % 100 == 0)
+                    {
+                        String rejected = "Rejected " + id + '-' + i;
+                        Assertions.assertThrows(
+                                IllegalArgumentException.class,
+                                () -> shop.deliverOrder(rejected, TODAY, "G:1300"));
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+
+        MutableBag<DonutType> delivered = Bags.mutable.empty();
+        shop.getTopDonuts(DonutType.count()).forEach(each -> delivered.addOccurrences(each.getOne(), each.getTwo()));
+        Assertions.assertEquals(2 * totalOrders, delivered.occurrencesOf(DonutType.BOSTON_CREAM));
+        Assertions.assertEquals(totalOrders, delivered.occurrencesOf(DonutType.GLAZED));
+        var donuts = shop.getDonuts();
+        var made = shop.getDonutsMade();
+        for (DonutType type : DonutType.values())
+        {
+            Assertions.assertEquals(
+                    made.occurrencesOf(type),
+                    donuts.occurrencesOf(type) + delivered.occurrencesOf(type),
+                    type.name());
+        }
+        Assertions.assertEquals(5, donuts.occurrencesOf(DonutType.JELLY));
+
+        Assertions.assertEquals(totalOrders, shop.getOrderCount());
+        int donutsOrdered = 0;
+        for (int i = 0; i < customers; i++)
+        {
+            donutsOrdered += shop.getCustomer("Customer " + i).getTotalDonutsOrdered();
+        }
+        Assertions.assertEquals(3 * totalOrders, donutsOrdered);
+        Assertions.assertNull(shop.getCustomer("Rejected 0-0"));
+        Assertions.assertEquals(customers, shop.getCustomersByDonutTypesOrdered().get(DonutType.GLAZED).size());
+    }
+}
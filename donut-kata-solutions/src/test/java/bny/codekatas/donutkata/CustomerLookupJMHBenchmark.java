@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Measures the rate at which a DonutShop can deliver orders to existing customers as the number of
+ * customers grows.  With customers indexed by name the rate should stay flat from 10k to 1M customers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+public class CustomerLookupJMHBenchmark
+{
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+
+    @Param({"10000", "100000", "1000000"})
+    private int customerCount;
+
+    private String[] customerNames;
+    private DonutShop donutShop;
+    private int next;
+
+    public static void main(String[] args) throws RunnerException
+    {
+        var options = new OptionsBuilder().include(".*" + CustomerLookupJMHBenchmark.class.getSimpleName() + ".*")
+                .forks(2)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(2L))
+                .measurementIterations(10)
+                .measurementTime(TimeValue.seconds(2L))
+                .timeout(TimeValue.seconds(60))
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUpCustomers()
+    {
+        this.customerNames = new String[this.customerCount];
+        for (int i = 0; i < this.customerCount; i++)
+        {
+            this.customerNames[i] = "Customer " + i;
+        }
+    }
+
+    /**
+     * Deliveries are retained by the shop, so a fresh shop is built for each iteration to keep the heap
+     * from growing across the whole run.
+     */
+    @Setup(Level.Iteration)
+    public void setUpDonutShop()
+    {
+        this.donutShop = new DonutShop();
+        for (String customerName : this.customerNames)
+        {
+            this.donutShop.deliverOrder(customerName, TODAY, "G:1");
+        }
+        this.next = 0;
+    }
+
+    @Benchmark
+    public Delivery deliverOrderToExistingCustomer()
+    {
+        String customerName = this.customerNames[this.next];
+        this.next = (this.next + 7919) % this.customerNames.length;
+        return this.donutShop.deliverOrder(customerName, TODAY, "BC:2,G:3");
+    }
+}
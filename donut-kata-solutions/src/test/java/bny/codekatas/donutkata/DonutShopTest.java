@@ -22,6 +22,9 @@ import java.time.LocalDate;
 import java.time.ZoneOffset;
 
 import org.eclipse.collections.api.factory.Lists;
+import org.eclipse.collections.api.factory.Maps;
+import org.eclipse.collections.impl.factory.Multimaps;
+import org.eclipse.collections.impl.parallel.ParallelIterate;
 import org.eclipse.collections.impl.test.Verify;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -73,6 +76,23 @@ public class DonutShopTest
         this.donutShop = null;
     }
 
+    @Test
+    public void getDonuts()
+    {
+        var donuts = this.donutShop.getDonuts();
+        Assertions.assertEquals(45, donuts.size());
+        Assertions.assertEquals(0, donuts.occurrencesOf(DonutType.BOSTON_CREAM));
+        Assertions.assertEquals(0, donuts.occurrencesOf(DonutType.GLAZED));
+        Assertions.assertEquals(4, donuts.occurrencesOf(DonutType.BLUEBERRY));
+        Assertions.assertEquals(9, donuts.occurrencesOf(DonutType.BAVARIAN_CREAM));
+        Assertions.assertEquals(10, donuts.occurrencesOf(DonutType.JELLY));
+
+        this.donutShop.makeDonuts(DonutType.JELLY, 5);
+        Assertions.assertEquals(10, donuts.occurrencesOf(DonutType.JELLY));
+        Assertions.assertEquals(15, this.donutShop.getDonutCount(DonutType.JELLY));
+        Assertions.assertEquals(15, this.donutShop.getDonuts().occurrencesOf(DonutType.JELLY));
+    }
+
     @Test
     public void getTop2Donuts()
     {
@@ -82,6 +102,22 @@ public class DonutShopTest
         Assertions.assertEquals(expected, this.donutShop.getTopDonuts(2));
     }
 
+    @Test
+    public void getTopDonutsForDateRange()
+    {
+        var expectedToday = Lists.mutable.empty()
+                .with(pair(DonutType.BOSTON_CREAM, 3))
+                .with(pair(DonutType.BLUEBERRY, 2));
+        Assertions.assertEquals(expectedToday, this.donutShop.getTopDonuts(2, this.today, this.today));
+        var expectedYesterday = Lists.mutable.empty()
+                .with(pair(DonutType.GLAZED, 10));
+        Assertions.assertEquals(expectedYesterday, this.donutShop.getTopDonuts(1, this.yesterday, this.yesterday));
+        Assertions.assertEquals(
+                this.donutShop.getTopDonuts(3),
+                this.donutShop.getTopDonuts(3, this.yesterday, this.tomorrow));
+        Verify.assertEmpty(this.donutShop.getTopDonuts(3, this.tomorrow.plusDays(1), this.tomorrow.plusDays(7)));
+    }
+
     @Test
     public void totalDeliveryValueByDate()
     {
@@ -105,6 +141,29 @@ public class DonutShopTest
         Assertions.assertEquals("Donnie Dapper", this.donutShop.getTopCustomer().name());
     }
 
+    @Test
+    public void customerWithExistingDeliveries()
+    {
+        var ted = this.donutShop.getTopCustomers(10).detect(customer -> customer.named("Ted Smith"));
+        var copy = new Customer("Ted Smith", Lists.mutable.withAll(ted.getDeliveries()));
+        Assertions.assertEquals(ted.getTotalDonutsOrdered(), copy.getTotalDonutsOrdered());
+        Assertions.assertEquals(ted.getDonutTypesOrdered(), copy.getDonutTypesOrdered());
+        Assertions.assertTrue(copy.getTotalDonutsOrdered() > 0L);
+    }
+
+    @Test
+    public void getTopCustomers()
+    {
+        var topCustomers = this.donutShop.getTopCustomers(3).collect(Customer::name);
+        Assertions.assertEquals(Lists.mutable.with("Donnie Dapper", "Sally Prince", "Ted Smith"), topCustomers);
+        Assertions.assertEquals(22L, this.donutShop.getTopCustomer().getTotalDonutsOrdered());
+
+        this.donutShop.deliverOrder("Ted Smith", this.tomorrow, "J:20");
+        Assertions.assertEquals("Ted Smith", this.donutShop.getTopCustomer().name());
+        Assertions.assertEquals(25L, this.donutShop.getTopCustomer().getTotalDonutsOrdered());
+        Verify.assertSize(4, this.donutShop.getTopCustomers(10));
+    }
+
     @Test
     public void getCustomersByDonutTypesOrdered()
     {
@@ -142,4 +201,204 @@ public class DonutShopTest
         Assertions.assertEquals(0.95, statsTotal.getMin(), 0.01);
         Assertions.assertEquals(1.35, statsTotal.getMax(), 0.01);
     }
+
+    @Test
+    public void reportsForDatesWithoutDeliveries()
+    {
+        var nextWeek = this.today.plusWeeks(1);
+        Assertions.assertEquals(0.0d, this.donutShop.getTotalDeliveryValueFor(nextWeek), 0.001);
+        Assertions.assertEquals(0, this.donutShop.getDonutPriceStatistics(nextWeek, nextWeek.plusDays(3)).getCount());
+        Assertions.assertEquals(0, this.donutShop.getDonutPriceStatistics(this.tomorrow, this.yesterday).getCount());
+
+        var statsTodayAndTomorrow = this.donutShop.getDonutPriceStatistics(this.today, nextWeek);
+        Assertions.assertEquals(21.45d, statsTodayAndTomorrow.getSum(), 0.01);
+        Assertions.assertEquals(19, statsTodayAndTomorrow.getCount());
+    }
+
+    @Test
+    public void deliverOrderForEveryDonutType()
+    {
+        var delivery = this.donutShop.deliverOrder("Ted Smith", this.today, "BC:1,G:2,OF:3,CG:4,VF:5,P:6,B:7,J:8,BA:9");
+        for (DonutType type : DonutType.values())
+        {
+            Assertions.assertSame(type, DonutType.forAbbreviation(type.getAbbreviation()));
+            Assertions.assertEquals(type.ordinal() + 1, delivery.order().counts().occurrencesOf(type));
+            Assertions.assertEquals(type.ordinal() + 1, delivery.getCount(type));
+        }
+        Assertions.assertEquals(45, delivery.getTotalDonuts());
+        Assertions.assertEquals(45, delivery.donuts().size());
+        Assertions.assertEquals(45 * 0.95d, delivery.donuts().sumOfDouble(Donut::price), 0.001);
+        Assertions.assertEquals(delivery.order().counts(), delivery.donuts().countBy(Donut::type));
+        Assertions.assertNull(DonutType.forAbbreviation("X"));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> this.donutShop.deliverOrder("Ted Smith", this.today, "BC:1,X:2"));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> this.donutShop.deliverOrder("Ted Smith", this.today, "BC:"));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> this.donutShop.deliverOrder("Ted Smith", this.today, "BC:1x"));
+        Assertions.assertNull(DonutType.forAbbreviation("B@"));
+        Assertions.assertNull(DonutType.forAbbreviation("G@"));
+        Assertions.assertNull(DonutType.forAbbreviation("@"));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> this.donutShop.deliverOrder("Ted Smith", this.today, "B@:1"));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> this.donutShop.deliverOrder("Ted Smith", this.today, ""));
+    }
+
+    @Test
+    public void deliverOrdersMatchesDeliverOrder()
+    {
+        var requests = Lists.mutable.with(
+                new OrderRequest("Ted Smith", this.today, "BC:2,J:8"),
+                new OrderRequest("New Customer", this.tomorrow, "J:5,G:20"),
+                new OrderRequest("Mary Williams", this.today, "P:13"));
+        var sequentialShop = new DonutShop();
+        sequentialShop.makeDonuts(DonutType.JELLY, 10);
+        sequentialShop.makeDonuts(DonutType.PUMPKIN, 20);
+        var expected = requests.collect(request -> sequentialShop.deliverOrder(
+                request.customerName(),
+                request.date(),
+                request.donutTypeCounts()));
+        var batchShop = new DonutShop();
+        batchShop.makeDonuts(DonutType.JELLY, 10);
+        batchShop.makeDonuts(DonutType.PUMPKIN, 20);
+        var actual = batchShop.deliverOrders(requests);
+
+        Assertions.assertEquals(expected.collect(Delivery::donutCounts), actual.collect(Delivery::donutCounts));
+        Assertions.assertEquals(expected.collect(Delivery::getTotalPrice), actual.collect(Delivery::getTotalPrice));
+        Assertions.assertEquals(sequentialShop.getDonuts(), batchShop.getDonuts());
+        Assertions.assertEquals(sequentialShop.getTopDonuts(3), batchShop.getTopDonuts(3));
+        Assertions.assertEquals(7, batchShop.getDonuts().occurrencesOf(DonutType.PUMPKIN));
+    }
+
+    @Test
+    public void rejectedBatchLeavesShopUnchanged()
+    {
+        var topCustomers = this.donutShop.getTopCustomers(10);
+        var donuts = this.donutShop.getDonuts();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.donutShop.deliverOrders(Lists.mutable.with(
+                new OrderRequest("New Customer", this.today, "J:5"),
+                new OrderRequest("Ted Smith", this.today, "G:1300"))));
+        Assertions.assertEquals(topCustomers, this.donutShop.getTopCustomers(10));
+        Assertions.assertEquals(donuts, this.donutShop.getDonuts());
+    }
+
+    @Test
+    public void tieredPricing()
+    {
+        var pricing = TieredPricing.DEFAULT;
+        Assertions.assertEquals(1.50d, pricing.pricePerDonut(1), 0.001);
+        Assertions.assertEquals(1.35d, pricing.pricePerDonut(2), 0.001);
+        Assertions.assertEquals(1.35d, pricing.pricePerDonut(5), 0.001);
+        Assertions.assertEquals(1.25d, pricing.pricePerDonut(6), 0.001);
+        Assertions.assertEquals(1.00d, pricing.pricePerDonut(12), 0.001);
+        Assertions.assertEquals(0.95d, pricing.pricePerDonut(1200), 0.001);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> pricing.pricePerDonut(1201));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TieredPricing.parse("1:1.50", 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TieredPricing.parse("0:1.50,6:1.25,2:1.35", 10));
+    }
+
+    @Test
+    public void customerPricing()
+    {
+        var pricing = new CustomerPricing(
+                TieredPricing.DEFAULT,
+                Maps.mutable.with("Ted Smith", TieredPricing.parse("0:1.00,6:0.80", 10_000)));
+        var shop = new DonutShop(pricing);
+        Assertions.assertEquals(3.00d, shop.deliverOrder("Ted Smith", this.today, "BC:3").getTotalPrice(), 0.001);
+        Assertions.assertEquals(4.05d, shop.deliverOrder("Mary Williams", this.today, "BC:3").getTotalPrice(), 0.001);
+        Assertions.assertEquals(4000.0d, shop.deliverOrder("Ted Smith", this.today, "G:5000").getTotalPrice(), 0.001);
+    }
+
+    @Test
+    public void deliveryColumnStoreMatchesDonutShop()
+    {
+        var store = new DeliveryColumnStore();
+        this.donutShop.getDeliveries().forEach(store::add);
+
+        Assertions.assertEquals(4, store.size());
+        Assertions.assertEquals(
+                this.donutShop.getTotalDeliveryValueFor(this.today),
+                store.getTotalDeliveryValueFor(this.today),
+                0.001);
+        Assertions.assertEquals(0.0d, store.getTotalDeliveryValueFor(this.today.plusDays(5)), 0.001);
+        var expected = this.donutShop.getDonutPriceStatistics(this.yesterday, this.today);
+        var actual = store.getDonutPriceStatistics(this.yesterday, this.today);
+        Assertions.assertEquals(expected.getCount(), actual.getCount());
+        Assertions.assertEquals(expected.getSum(), actual.getSum(), 0.001);
+        Assertions.assertEquals(expected.getMin(), actual.getMin(), 0.001);
+        Assertions.assertEquals(expected.getMax(), actual.getMax(), 0.001);
+        Assertions.assertEquals(
+                this.donutShop.getCustomersByDonutTypesOrdered()
+                        .collectValues(Customer::name, Multimaps.mutable.set.empty()),
+                store.getCustomersByDonutTypesOrdered());
+        var window = new EnumInventory();
+        store.addDonutsDeliveredTo(window, this.yesterday, this.today);
+        Assertions.assertEquals(this.donutShop.getTopDonuts(3, this.yesterday, this.today), window.topOccurrences(3));
+        Assertions.assertEquals(
+                DeliveryColumnStore.MAX_CAPACITY * Double.BYTES,
+                DeliveryColumnStore.columnBytes(DeliveryColumnStore.MAX_CAPACITY, Double.BYTES));
+        Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> DeliveryColumnStore.columnBytes(DeliveryColumnStore.MAX_CAPACITY + 1L, Double.BYTES));
+    }
+
+    @Test
+    public void donutShopWithDeliveryColumnStore()
+    {
+        var shop = new DonutShop(TieredPricing.DEFAULT, new DeliveryColumnStore());
+        shop.deliverOrder("Ted Smith", this.today, "BC:2,BA:1,B:2");
+        shop.deliverOrder("Mary Williams", this.today, "BC:1,G:1");
+        shop.deliverOrders(Lists.mutable.with(
+                new OrderRequest("Sally Prince", this.tomorrow, "BC:6,P:2,B:2,OF:2"),
+                new OrderRequest("Donnie Dapper", this.yesterday, "BC:6,P:2,B:2,OF:2,G:10")));
+
+        Assertions.assertEquals(
+                this.donutShop.getTotalDeliveryValueFor(this.today),
+                shop.getTotalDeliveryValueFor(this.today),
+                0.001);
+        Assertions.assertEquals(
+                this.donutShop.getTopDonuts(2, this.yesterday, this.today),
+                shop.getTopDonuts(2, this.yesterday, this.today));
+        var expected = this.donutShop.getDonutPriceStatistics(this.yesterday, this.tomorrow);
+        var actual = shop.getDonutPriceStatistics(this.yesterday, this.tomorrow);
+        Assertions.assertEquals(expected.getCount(), actual.getCount());
+        Assertions.assertEquals(expected.getSum(), actual.getSum(), 0.001);
+        Assertions.assertEquals(this.donutShop.getTopCustomers(4), shop.getTopCustomers(4));
+        Assertions.assertEquals(
+                this.donutShop.getCustomersByDonutTypesOrdered(),
+                shop.getCustomersByDonutTypesOrdered());
+        Verify.assertEmpty(shop.getTopCustomer().getDeliveries());
+        Assertions.assertEquals(
+                this.donutShop.getDeliveries().collect(Delivery::getTotalPrice),
+                shop.getDeliveries().collect(Delivery::getTotalPrice));
+        Assertions.assertEquals(
+                this.donutShop.getDeliveries().collect(Delivery::getCustomer),
+                shop.getDeliveries().collect(Delivery::getCustomer));
+        // Rebuilt Deliveries belong to the shop's own Customers and are not counted again
+        var donnie = shop.getDeliveries().getLast().getCustomer();
+        Assertions.assertSame(shop.getTopCustomer(), donnie);
+        Assertions.assertEquals(22L, donnie.getTotalDonutsOrdered());
+    }
+
+    @Test
+    public void parallelReportsMatchSerialReports()
+    {
+        var executor = ParallelIterate.newPooledExecutor(DonutShopTest.class.getSimpleName(), true);
+        try
+        {
+            Assertions.assertEquals(
+                    this.donutShop.getCustomersByDonutTypesOrdered(),
+                    this.donutShop.getCustomersByDonutTypesOrdered(executor, 1));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
 }
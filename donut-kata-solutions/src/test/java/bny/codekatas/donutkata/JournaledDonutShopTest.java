@@ -0,0 +1,222 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournaledDonutShopTest
+{
+    private final LocalDate today = LocalDate.of(2024, 3, 1);
+    private final LocalDate tomorrow = this.today.plusDays(1);
+
+    @TempDir
+    Path directory;
+
+    private void placeOrders(DonutShop donutShop)
+    {
+        donutShop.makeDonuts(DonutType.BOSTON_CREAM, 10);
+        donutShop.makeDonuts(DonutType.GLAZED, 10);
+        donutShop.deliverOrder("Ted Smith", this.today, "BC:2,BA:1,B:2");
+        donutShop.deliverOrder("Mary Williams", this.today, "BC:1,G:1");
+        donutShop.deliverOrder("Sally Prince", this.tomorrow, "BC:6,P:2,B:2,OF:2");
+        donutShop.deliverOrders(List.of(
+                new OrderRequest("Ted Smith", this.tomorrow, "G:13"),
+                new OrderRequest("Donnie Dapper", this.tomorrow, "J:1")));
+    }
+
+    private void assertSameState(DonutShop expected, DonutShop actual)
+    {
+        Assertions.assertEquals(expected.getDonuts(), actual.getDonuts());
+        Assertions.assertEquals(expected.getDeliveries().size(), actual.getDeliveries().size());
+        Assertions.assertEquals(expected.getTopDonuts(3), actual.getTopDonuts(3));
+        Assertions.assertEquals(expected.getTopCustomer().name(), actual.getTopCustomer().name());
+        Assertions.assertEquals(
+                expected.getTopCustomers(5).collect(Customer::getTotalDonutsOrdered),
+                actual.getTopCustomers(5).collect(Customer::getTotalDonutsOrdered));
+        Assertions.assertEquals(expected.getCustomersByDonutTypesOrdered(), actual.getCustomersByDonutTypesOrdered());
+        Assertions.assertEquals(
+                expected.getTotalDeliveryValueFor(this.tomorrow),
+                actual.getTotalDeliveryValueFor(this.tomorrow),
+                0.001);
+        var expectedStatistics = expected.getDonutPriceStatistics(this.today, this.tomorrow);
+        var actualStatistics = actual.getDonutPriceStatistics(this.today, this.tomorrow);
+        Assertions.assertEquals(expectedStatistics.getCount(), actualStatistics.getCount());
+        Assertions.assertEquals(expectedStatistics.getMin(), actualStatistics.getMin(), 0.001);
+        Assertions.assertEquals(expectedStatistics.getMax(), actualStatistics.getMax(), 0.001);
+        Assertions.assertEquals(
+                expected.getDeliveries().collect(Delivery::getTotalPrice),
+                actual.getDeliveries().collect(Delivery::getTotalPrice));
+    }
+
+    @Test
+    public void recoverFromJournal()
+    {
+        var expected = new DonutShop();
+        this.placeOrders(expected);
+        try (var donutShop = JournaledDonutShop.open(this.directory, 1000))
+        {
+            this.placeOrders(donutShop);
+        }
+        try (var recovered = JournaledDonutShop.open(this.directory, 1000))
+        {
+            this.assertSameState(expected, recovered);
+        }
+    }
+
+    @Test
+    public void recoverFromSnapshotAndJournal()
+    {
+        var expected = new DonutShop();
+        this.placeOrders(expected);
+        expected.makeDonuts(DonutType.PUMPKIN, 4);
+        try (var donutShop = JournaledDonutShop.open(this.directory, 3))
+        {
+            this.placeOrders(donutShop);
+            donutShop.makeDonuts(DonutType.PUMPKIN, 4);
+        }
+        try (var recovered = JournaledDonutShop.open(this.directory, 3))
+        {
+            this.assertSameState(expected, recovered);
+            recovered.deliverOrder("Mary Williams", this.tomorrow, "P:4");
+            expected.deliverOrder("Mary Williams", this.tomorrow, "P:4");
+        }
+        try (var recovered = JournaledDonutShop.open(this.directory, 3))
+        {
+            this.assertSameState(expected, recovered);
+            Assertions.assertEquals(0, recovered.getDonuts().occurrencesOf(DonutType.PUMPKIN));
+        }
+    }
+
+    @Test
+    public void rejectedOrderLeavesNothingToRecover()
+    {
+        try (var donutShop = JournaledDonutShop.open(this.directory, 1000))
+        {
+            this.placeOrders(donutShop);
+            var donuts = donutShop.getDonuts();
+            Assertions.assertThrows(
+                    IllegalArgumentException.class,
+                    () -> donutShop.deliverOrder("Ted Smith", this.today, "G:1300"));
+            Assertions.assertEquals(donuts, donutShop.getDonuts());
+        }
+        var expected = new DonutShop();
+        this.placeOrders(expected);
+        try (var recovered = JournaledDonutShop.open(this.directory, 1000))
+        {
+            this.assertSameState(expected, recovered);
+        }
+    }
+
+    @Test
+    public void recoverWithCustomPricing()
+    {
+        PricingEngine flatPrice = (customer, orderSize) -> 2.0d;
+        var expected = new DonutShop(flatPrice);
+        this.placeOrders(expected);
+        try (var donutShop = JournaledDonutShop.open(this.directory, 4, flatPrice))
+        {
+            this.placeOrders(donutShop);
+        }
+        try (var recovered = JournaledDonutShop.open(this.directory, 4, flatPrice))
+        {
+            this.assertSameState(expected, recovered);
+        }
+        // Recovered Deliveries keep the price they were delivered at
+        try (var recovered = JournaledDonutShop.open(this.directory, 4))
+        {
+            this.assertSameState(expected, recovered);
+        }
+    }
+
+    @Test
+    public void tornRecordIsDroppedOnRecovery() throws IOException
+    {
+        try (var donutShop = JournaledDonutShop.open(this.directory, 1000))
+        {
+            donutShop.makeDonuts(DonutType.GLAZED, 10);
+            donutShop.deliverOrder("Ted Smith", this.today, "G:2");
+            donutShop.deliverOrder("Mary Williams", this.today, "G:3");
+        }
+        // The header is 12 bytes, and each record has 9 bytes before its payload
+        int nameLength = "Ted Smith".getBytes(StandardCharsets.UTF_8).length;
+        int lastRecord = 12 + (9 + 5) + (9 + 20 + nameLength + 4 * DonutType.count());
+        Path journal = this.directory.resolve("donutshop.journal");
+        byte[] bytes = Files.readAllBytes(journal);
+        bytes[lastRecord + 9] ^= 1;
+        Files.write(journal, bytes);
+
+        var expected = new DonutShop();
+        expected.makeDonuts(DonutType.GLAZED, 10);
+        expected.deliverOrder("Ted Smith", this.today, "G:2");
+        try (var recovered = JournaledDonutShop.open(this.directory, 1000))
+        {
+            this.assertSameState(expected, recovered);
+            recovered.deliverOrder("Sally Prince", this.tomorrow, "J:1");
+            expected.deliverOrder("Sally Prince", this.tomorrow, "J:1");
+        }
+        try (var recovered = JournaledDonutShop.open(this.directory, 1000))
+        {
+            this.assertSameState(expected, recovered);
+        }
+    }
+
+    @Test
+    public void eachDeliveryInBatchCountsTowardsSnapshot()
+    {
+        var expected = new DonutShop();
+        try (var donutShop = JournaledDonutShop.open(this.directory, 2))
+        {
+            var requests = List.of(
+                    new OrderRequest("Ted Smith", this.today, "G:13"),
+                    new OrderRequest("Donnie Dapper", this.tomorrow, "J:1"));
+            donutShop.deliverOrders(requests);
+            expected.deliverOrders(requests);
+            Assertions.assertTrue(Files.exists(this.directory.resolve("donutshop.snapshot")));
+        }
+        try (var recovered = JournaledDonutShop.open(this.directory, 2))
+        {
+            this.assertSameState(expected, recovered);
+        }
+    }
+
+    @Test
+    public void recoverLongCustomerName()
+    {
+        String name = "D".repeat(70_000);
+        try (var donutShop = JournaledDonutShop.open(this.directory, 2))
+        {
+            donutShop.deliverOrder(name, this.today, "G:1");
+            donutShop.deliverOrder(name, this.today, "G:2");
+            donutShop.deliverOrder(name, this.tomorrow, "J:1");
+        }
+        try (var recovered = JournaledDonutShop.open(this.directory, 2))
+        {
+            Assertions.assertEquals(3, recovered.getDeliveries().size());
+            Assertions.assertEquals(name, recovered.getTopCustomer().name());
+            Assertions.assertEquals(4L, recovered.getTopCustomer().getTotalDonutsOrdered());
+        }
+    }
+}
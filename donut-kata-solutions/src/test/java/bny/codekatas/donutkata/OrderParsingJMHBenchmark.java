@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.impl.factory.Bags;
+import org.eclipse.collections.impl.list.fixed.ArrayAdapter;
+import org.eclipse.collections.impl.tuple.primitive.PrimitiveTuples;
+import org.eclipse.collections.impl.utility.ArrayIterate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Compares parsing donut type counts with {@link Order#parseCounts(CharSequence, MutableBag)} against the
+ * previous String.split based parsing with a linear search of the DonutType abbreviations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+public class OrderParsingJMHBenchmark
+{
+    @Param({"G:1", "BC:2,G:3", "BC:6,P:2,B:2,OF:2,G:10,CG:4,VF:3,J:12,BA:1"})
+    private String donutTypeCounts;
+
+    public static void main(String[] args) throws RunnerException
+    {
+        var options = new OptionsBuilder().include(".*" + OrderParsingJMHBenchmark.class.getSimpleName() + ".*")
+                .forks(2)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(2L))
+                .measurementIterations(10)
+                .measurementTime(TimeValue.seconds(2L))
+                .timeout(TimeValue.seconds(20))
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public MutableBag<DonutType> parseSinglePass()
+    {
+        MutableBag<DonutType> counts = Bags.mutable.empty();
+        Order.parseCounts(this.donutTypeCounts, counts);
+        return counts;
+    }
+
+    @Benchmark
+    public MutableBag<DonutType> parseSplit()
+    {
+        MutableBag<DonutType> counts = Bags.mutable.empty();
+        ArrayAdapter.adapt(this.donutTypeCounts.split(","))
+                .asLazy()
+                .collect(pair -> pair.split(":"))
+                .collect(pair -> PrimitiveTuples.pair(
+                        ArrayIterate.detectWith(DonutType.values(), this::abbreviationEquals, pair[0]),
+                        Integer.parseInt(pair[1])))
+                .each(pair -> counts.addOccurrences(pair.getOne(), pair.getTwo()));
+        return counts;
+    }
+
+    private boolean abbreviationEquals(DonutType type, String abbreviation)
+    {
+        return abbreviation.equals(type.getAbbreviation());
+    }
+}
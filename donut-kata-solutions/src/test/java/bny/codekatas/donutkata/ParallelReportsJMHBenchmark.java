@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.multimap.Multimap;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.parallel.ParallelIterate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Compares the serial and parallel versions of DonutShop.getCustomersByDonutTypesOrdered after 1,000,000
+ * Deliveries to 100,000 Customers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+public class ParallelReportsJMHBenchmark
+{
+    private static final int DELIVERIES = 1_000_000;
+    private static final int BATCH_SIZE = 10_000;
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final String[] COUNTS = {"G:1", "BC:2,G:3", "BC:6,P:2,B:2,OF:2", "J:12", "CG:4,VF:3,BA:1", "G:13"};
+
+    private final ExecutorService executor =
+            ParallelIterate.newPooledExecutor(ParallelReportsJMHBenchmark.class.getSimpleName(), true);
+    private DonutShop donutShop;
+
+    public static void main(String[] args) throws RunnerException
+    {
+        var options = new OptionsBuilder().include(".*" + ParallelReportsJMHBenchmark.class.getSimpleName() + ".*")
+                .forks(2)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(2L))
+                .measurementIterations(10)
+                .measurementTime(TimeValue.seconds(2L))
+                .timeout(TimeValue.seconds(20))
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp()
+    {
+        var random = new Random(1L);
+        MutableList<OrderRequest> requests = Lists.mutable.withInitialCapacity(DELIVERIES);
+        for (int i = 0; i < DELIVERIES; i++)
+        {
+            requests.add(new OrderRequest(
+                    "Customer " + random.nextInt(100_000),
+                    START.plusDays(random.nextInt(365)),
+                    COUNTS[random.nextInt(COUNTS.length)]));
+        }
+        this.donutShop = new DonutShop();
+        this.donutShop.deliverOrders(requests);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        this.executor.shutdown();
+    }
+
+    @Benchmark
+    public Multimap<DonutType, Customer> customersByDonutTypesSerial()
+    {
+        return this.donutShop.getCustomersByDonutTypesOrdered();
+    }
+
+    @Benchmark
+    public Multimap<DonutType, Customer> customersByDonutTypesParallel()
+    {
+        return this.donutShop.getCustomersByDonutTypesOrdered(this.executor, BATCH_SIZE);
+    }
+}
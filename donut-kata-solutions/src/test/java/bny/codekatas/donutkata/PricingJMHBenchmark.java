@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 The Bank of New York Mellon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bny.codekatas.donutkata;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.tuple.primitive.ObjectDoublePair;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.list.primitive.IntInterval;
+import org.eclipse.collections.impl.tuple.primitive.PrimitiveTuples;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Compares pricing a batch of orders with {@link TieredPricing} against the previous search of a List of
+ * IntInterval to price pairs.  Order sizes are skewed towards small orders, with the occasional dozen and
+ * bulk order, like the orders a shop actually sees.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+public class PricingJMHBenchmark
+{
+    private static final ImmutableList<ObjectDoublePair<IntInterval>> PRICES =
+            Lists.immutable.with(
+                    PrimitiveTuples.pair(IntInterval.zeroTo(1), 1.50d),
+                    PrimitiveTuples.pair(IntInterval.fromTo(2, 5), 1.35d),
+                    PrimitiveTuples.pair(IntInterval.fromTo(6, 11), 1.25d),
+                    PrimitiveTuples.pair(IntInterval.fromTo(12, 12), 1.00d),
+                    PrimitiveTuples.pair(IntInterval.fromTo(13, 1200), 0.95d));
+
+    private final int[] orderSizes = new int[1024];
+    private final TieredPricing pricing = TieredPricing.DEFAULT;
+
+    public static void main(String[] args) throws RunnerException
+    {
+        var options = new OptionsBuilder().include(".*" + PricingJMHBenchmark.class.getSimpleName() + ".*")
+                .forks(2)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(2L))
+                .measurementIterations(10)
+                .measurementTime(TimeValue.seconds(2L))
+                .timeout(TimeValue.seconds(20))
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(42L);
+        for (int i = 0; i < this.orderSizes.length; i++)
+        {
+            int bucket = random.nextInt(100);
+            if (bucket < 60)
+            {
+                this.orderSizes[i] = 1 + random.nextInt(6);
+            }
+            else if (bucket < 90)
+            {
+                this.orderSizes[i] = 6 + random.nextInt(8);
+            }
+            else
+            {
+                this.orderSizes[i] = 13 + random.nextInt(200);
+            }
+        }
+    }
+
+    @Benchmark
+    public double tieredPricing()
+    {
+        double total = 0.0d;
+        for (int orderSize : this.orderSizes)
+        {
+            total += this.pricing.pricePerDonut(orderSize);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double intervalSearch()
+    {
+        double total = 0.0d;
+        for (int orderSize : this.orderSizes)
+        {
+            total += PRICES.detectIfNone(
+                    pair -> pair.getOne().contains(orderSize),
+                    () -> { throw new IllegalArgumentException("This order cannot be satisfied");})
+                    .getTwo();
+        }
+        return total;
+    }
+}